@@ -0,0 +1,65 @@
+package com.practice.springboot.benchmark;
+
+import com.practice.springboot.SpringBootTestingApplication;
+import com.practice.springboot.model.Employee;
+import com.practice.springboot.service.EmployeeService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/*Boots the application without the web layer against its own in-memory H2 database.
+* Every benchmark state gets a fresh database, so table sizes do not leak between benchmarks.*/
+
+final class BenchmarkContext {
+
+    //rows inserted per saveEmployees call when filling the table
+    private static final int FILL_CHUNK_SIZE = 10_000;
+
+    private BenchmarkContext() {
+    }
+
+    //properties are passed as command line arguments, so they override application.properties and the defaults below.
+    //A property given twice would be bound as a comma separated list, so an overridden default is left out
+    static ConfigurableApplicationContext start(String... properties) {
+        Map<String, String> args = new LinkedHashMap<>();
+        args.put("spring.datasource.url", "jdbc:h2:mem:benchmark-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        args.put("spring.jpa.show-sql", "false");
+        args.put("logging.level.root", "WARN");
+        for (String property : properties) {
+            int separator = property.indexOf('=');
+            args.put(property.substring(0, separator), property.substring(separator + 1));
+        }
+        return new SpringApplicationBuilder(SpringBootTestingApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.entrySet().stream().map(arg -> "--" + arg.getKey() + "=" + arg.getValue()).toArray(String[]::new));
+    }
+
+    static Employee employee(long n) {
+        return Employee.builder()
+                .firstName("First" + n)
+                .lastName("Last" + n)
+                .email("employee" + n + "@gmail.com")
+                .build();
+    }
+
+    static List<Employee> employees(long from, int count) {
+        List<Employee> employees = new ArrayList<>(count);
+        for (long n = from; n < from + count; n++) {
+            employees.add(employee(n));
+        }
+        return employees;
+    }
+
+    //inserts employees 0 until rows through the bulk create path
+    static void fill(EmployeeService employeeService, int rows) {
+        for (int from = 0; from < rows; from += FILL_CHUNK_SIZE) {
+            employeeService.saveEmployees(employees(from, Math.min(FILL_CHUNK_SIZE, rows - from)));
+        }
+    }
+}
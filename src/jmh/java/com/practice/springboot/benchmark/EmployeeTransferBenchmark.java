@@ -0,0 +1,73 @@
+package com.practice.springboot.benchmark;
+
+import com.practice.springboot.model.EmployeeImportResult;
+import com.practice.springboot.service.EmployeeService;
+import com.practice.springboot.service.EmployeeTransferService;
+import com.practice.springboot.transfer.TransferFormat;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.util.concurrent.TimeUnit;
+
+//whole table export and import, rows/s = rows / score. Every import goes into a new empty database
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EmployeeTransferBenchmark {
+
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"CSV", "BINARY"})
+    public TransferFormat format;
+
+    private ConfigurableApplicationContext source;
+
+    private byte[] export;
+
+    private ConfigurableApplicationContext target;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        source = BenchmarkContext.start();
+        BenchmarkContext.fill(source.getBean(EmployeeService.class), rows);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        source.getBean(EmployeeTransferService.class).exportEmployees(format, Channels.newChannel(outputStream));
+        export = outputStream.toByteArray();
+    }
+
+    @Setup(Level.Iteration)
+    public void startTarget() {
+        target = BenchmarkContext.start();
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeTarget() {
+        target.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        source.close();
+    }
+
+    @Benchmark
+    public long exportEmployees() throws IOException {
+        return source.getBean(EmployeeTransferService.class)
+                .exportEmployees(format, Channels.newChannel(OutputStream.nullOutputStream()));
+    }
+
+    @Benchmark
+    public EmployeeImportResult importEmployees() throws IOException {
+        return target.getBean(EmployeeTransferService.class)
+                .importEmployees(format, Channels.newChannel(new ByteArrayInputStream(export)));
+    }
+}
@@ -0,0 +1,68 @@
+package com.practice.springboot.benchmark;
+
+import com.practice.springboot.cache.EmployeeCache;
+import com.practice.springboot.model.Employee;
+import com.practice.springboot.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//latency of getEmployeeById with a cold cache (every lookup goes to the database) and a warm cache
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class GetEmployeeByIdBenchmark {
+
+    @Param({"10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeService employeeService;
+
+    private EmployeeCache employeeCache;
+
+    private EntityManagerFactory entityManagerFactory;
+
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.start();
+        employeeService = context.getBean(EmployeeService.class);
+        employeeCache = context.getBean(EmployeeCache.class);
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        BenchmarkContext.fill(employeeService, rows);
+        List<Employee> employees = employeeService.getAllEmployees();
+        ids = employees.stream().mapToLong(Employee::getId).toArray();
+        employees.forEach(employee -> employeeService.getEmployeeById(employee.getId()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Employee> getEmployeeByIdCold() {
+        long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        //both caches in front of the database: the employee cache and the Hibernate second-level cache
+        employeeCache.evict(id);
+        entityManagerFactory.getCache().evict(Employee.class, id);
+        return employeeService.getEmployeeById(id);
+    }
+
+    @Benchmark
+    public Optional<Employee> getEmployeeByIdWarm() {
+        long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        return employeeService.getEmployeeById(id);
+    }
+}
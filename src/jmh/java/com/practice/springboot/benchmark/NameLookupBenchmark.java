@@ -0,0 +1,67 @@
+package com.practice.springboot.benchmark;
+
+import com.practice.springboot.model.Employee;
+import com.practice.springboot.repository.EmployeeRepository;
+import com.practice.springboot.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//latency of the four first name/last name query variants of EmployeeRepository
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class NameLookupBenchmark {
+
+    @Param({"10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeRepository employeeRepository;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.start();
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        BenchmarkContext.fill(context.getBean(EmployeeService.class), rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private int randomEmployee() {
+        return ThreadLocalRandom.current().nextInt(rows);
+    }
+
+    @Benchmark
+    public Employee findByJPQLIndexParams() {
+        int n = randomEmployee();
+        return employeeRepository.findByJPQLIndexParams("First" + n, "Last" + n);
+    }
+
+    @Benchmark
+    public Employee findByJPQLNamedParams() {
+        int n = randomEmployee();
+        return employeeRepository.findByJPQLNamedParams("First" + n, "Last" + n);
+    }
+
+    @Benchmark
+    public Employee findByNativeSQLIndexParams() {
+        int n = randomEmployee();
+        return employeeRepository.findByNativeSQLIndexParams("First" + n, "Last" + n);
+    }
+
+    @Benchmark
+    public Employee findByNativeSQLNamedParams() {
+        int n = randomEmployee();
+        return employeeRepository.findByNativeSQLNamedParams("First" + n, "Last" + n);
+    }
+}
@@ -0,0 +1,98 @@
+package com.practice.springboot.benchmark;
+
+import com.practice.springboot.exception.EmployeeIdNotFoundException;
+import com.practice.springboot.model.Employee;
+import com.practice.springboot.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*getEmployeeById where 9 of 10 ids do not exist, the way a crawler or a client with stale ids calls it.
+* Compares the empty result of the service with the exception it used to throw for an unknown id,
+* once with a full stack trace and once stackless. Run with -prof gc and compare gc.alloc.rate.norm.*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class NotFoundBenchmark {
+
+    @Param({"10000"})
+    public int rows;
+
+    //share of the looked up ids that do not exist
+    @Param({"0.9"})
+    public double missRatio;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeService employeeService;
+
+    private long[] ids;
+
+    private long maxId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.start();
+        employeeService = context.getBean(EmployeeService.class);
+        BenchmarkContext.fill(employeeService, rows);
+        List<Employee> employees = employeeService.getAllEmployees();
+        ids = employees.stream().mapToLong(Employee::getId).toArray();
+        maxId = ids[ids.length - 1];
+        //hits are served from the cache, so the difference between the variants is the miss path only
+        employees.forEach(employee -> employeeService.getEmployeeById(employee.getId()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private long nextId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < missRatio) {
+            return maxId + 1 + random.nextInt(ids.length);
+        }
+        return ids[random.nextInt(ids.length)];
+    }
+
+    @Benchmark
+    public Optional<Employee> emptyResult() {
+        return employeeService.getEmployeeById(nextId());
+    }
+
+    @Benchmark
+    public Object stacklessException() {
+        long id = nextId();
+        try {
+            return employeeService.getEmployeeById(id)
+                    .orElseThrow(() -> new EmployeeIdNotFoundException("Provided employee id is not found: " + id));
+        } catch (EmployeeIdNotFoundException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public Object legacyException() {
+        long id = nextId();
+        try {
+            return employeeService.getEmployeeById(id)
+                    .orElseThrow(() -> new LegacyNotFoundException("Provided employee id is not found: " + id));
+        } catch (LegacyNotFoundException e) {
+            return e.getMessage();
+        }
+    }
+
+    //what EmployeeIdNotFoundException was before: a plain exception that fills in its stack trace
+    private static class LegacyNotFoundException extends RuntimeException {
+        LegacyNotFoundException(String message) {
+            super(message);
+        }
+    }
+}
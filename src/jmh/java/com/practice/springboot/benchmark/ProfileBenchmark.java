@@ -0,0 +1,99 @@
+package com.practice.springboot.benchmark;
+
+import com.practice.springboot.cache.EmployeeCache;
+import com.practice.springboot.model.Employee;
+import com.practice.springboot.model.EmployeeBatchResult;
+import com.practice.springboot.model.EmployeeMultiGetResult;
+import com.practice.springboot.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*The database heavy service calls with the default settings and with the production profile.
+* SQL logging is off in both, it would flood the benchmark output and dwarf every other difference.
+* The production profile leaves the URL to the operator, the benchmark's own H2 URL adds the QUERY_CACHE_SIZE it documents.*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProfileBenchmark {
+
+    private static final int BULK_SIZE = 1000;
+
+    //multi-gets ask for 1 to this many ids, every size needs its own statement without IN list padding
+    private static final int MAX_MULTI_GET = 200;
+
+    @Param({"default", "production"})
+    public String profile;
+
+    @Param({"10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeService employeeService;
+
+    private EmployeeCache employeeCache;
+
+    private List<Employee> employees;
+
+    private long[] ids;
+
+    private long nextEmployee;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        String database = "jdbc:h2:mem:benchmark-" + profile + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        context = profile.equals("production")
+                ? BenchmarkContext.start("spring.profiles.active=production",
+                        "spring.datasource.url=" + database + ";QUERY_CACHE_SIZE=64")
+                : BenchmarkContext.start("spring.datasource.url=" + database);
+        employeeService = context.getBean(EmployeeService.class);
+        employeeCache = context.getBean(EmployeeCache.class);
+        BenchmarkContext.fill(employeeService, rows);
+        employees = employeeService.getAllEmployees();
+        ids = employees.stream().mapToLong(Employee::getId).toArray();
+        nextEmployee = rows;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    //uncached ids, so every call runs findAllById with an IN list of a different length
+    @Benchmark
+    public EmployeeMultiGetResult multiGetUncached() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int size = 1 + random.nextInt(MAX_MULTI_GET);
+        List<Long> requested = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            long id = ids[random.nextInt(ids.length)];
+            employeeCache.evict(id);
+            requested.add(id);
+        }
+        return employeeService.getEmployeesByIds(requested);
+    }
+
+    //rewrites a row with its own values, so the email stays unique
+    @Benchmark
+    public Optional<Employee> updateEmployee() {
+        Employee employee = employees.get(ThreadLocalRandom.current().nextInt(employees.size()));
+        return employeeService.updateEmployee(employee.getId(), employee);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public EmployeeBatchResult saveEmployees() {
+        EmployeeBatchResult result = employeeService.saveEmployees(BenchmarkContext.employees(nextEmployee, BULK_SIZE));
+        nextEmployee += BULK_SIZE;
+        return result;
+    }
+}
@@ -0,0 +1,51 @@
+package com.practice.springboot.benchmark;
+
+import com.practice.springboot.model.Employee;
+import com.practice.springboot.model.EmployeeBatchResult;
+import com.practice.springboot.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+//throughput of single and bulk creates, every invocation inserts employees with new emails
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SaveEmployeeBenchmark {
+
+    private static final int BULK_SIZE = 1000;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeService employeeService;
+
+    private long nextEmployee;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.start();
+        employeeService = context.getBean(EmployeeService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Employee saveEmployee() {
+        return employeeService.saveEmployee(BenchmarkContext.employee(nextEmployee++));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public EmployeeBatchResult saveEmployees() {
+        EmployeeBatchResult result = employeeService.saveEmployees(BenchmarkContext.employees(nextEmployee, BULK_SIZE));
+        nextEmployee += BULK_SIZE;
+        return result;
+    }
+}
@@ -0,0 +1,80 @@
+package com.practice.springboot.benchmark;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.practice.springboot.model.Employee;
+import com.practice.springboot.wire.EmployeeProtobuf;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//serialization of a page of employees in every response format, score per employee.
+//The size of one employee in each format is printed in setup
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final int EMPLOYEES = 100;
+
+    @Param({"JSON", "CBOR", "SMILE", "PROTOBUF"})
+    public String format;
+
+    //null for protobuf
+    private ObjectMapper objectMapper;
+
+    private JavaType listType;
+
+    private List<Employee> employees;
+
+    private byte[] encoded;
+
+    @Setup
+    public void setup() throws IOException {
+        //the same builder setup as WireFormatConfig
+        objectMapper = switch (format) {
+            case "JSON" -> Jackson2ObjectMapperBuilder.json().build();
+            case "CBOR" -> Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+            case "SMILE" -> Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+            default -> null;
+        };
+        if (objectMapper != null) {
+            listType = objectMapper.getTypeFactory().constructCollectionType(List.class, Employee.class);
+        }
+        employees = BenchmarkContext.employees(0, EMPLOYEES);
+        for (int i = 0; i < employees.size(); i++) {
+            employees.get(i).setId(1_000_000L + i);
+        }
+        encoded = serializeEmployeeList();
+        System.out.printf("%n%s: %.1f bytes per employee%n", format, (double) encoded.length / EMPLOYEES);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EMPLOYEES)
+    public byte[] serializeEmployeeList() throws IOException {
+        if (objectMapper != null) {
+            return objectMapper.writeValueAsBytes(employees);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(encoded != null ? encoded.length : 4096);
+        EmployeeProtobuf.writeList(employees, out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EMPLOYEES)
+    public List<Employee> deserializeEmployeeList() throws IOException {
+        if (objectMapper != null) {
+            return objectMapper.readValue(encoded, listType);
+        }
+        return EmployeeProtobuf.decodeList(encoded);
+    }
+}
@@ -0,0 +1,164 @@
+package com.practice.springboot.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.practice.springboot.config.EmployeeProperties;
+import com.practice.springboot.model.Employee;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*In-process cache in front of EmployeeRepository.
+* Caffeine evicts with W-TinyLFU once max size is reached, so frequently read employees stay cached.
+* Employees are cached by id, and a second, smaller index maps an email to the id that owns it.
+* Entries are copied on the way in and out, callers can change the returned object without changing the cache.
+* A row loaded from the database may be older than a write that commits while the load runs. Every write bumps an
+* invalidation stamp (per stripe of ids, and one for all employees), a load remembers the stamp before its query and
+* its result is only kept if no write came in between, so a racing load cannot bring back the state before the write.*/
+
+@Component
+public class EmployeeCache implements MeterBinder {
+
+    private final Cache<Long, Employee> employeesById;
+
+    private final Cache<String, Long> idsByEmail;
+
+    //stamps of the writes, one per stripe of ids and one for every employee (email lookups do not know the id up front)
+    private static final int STAMP_STRIPES = 1024;
+    private final AtomicLongArray idStamps = new AtomicLongArray(STAMP_STRIPES);
+    private final AtomicLong stamp = new AtomicLong();
+
+    public EmployeeCache(EmployeeProperties employeeProperties) {
+        EmployeeProperties.Cache config = employeeProperties.getCache();
+        this.employeesById = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+        this.idsByEmail = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+    }
+
+    public Optional<Employee> getById(long id) {
+        return Optional.ofNullable(employeesById.getIfPresent(id)).map(EmployeeCache::copy);
+    }
+
+    public Optional<Employee> getByEmail(String email) {
+        Long id = idsByEmail.getIfPresent(email);
+        if (id == null) {
+            return Optional.empty();
+        }
+        Employee employee = employeesById.getIfPresent(id);
+        //the email index can outlive the employee entry, or point to an employee whose email has changed since
+        if (employee == null || !email.equals(employee.getEmail())) {
+            idsByEmail.invalidate(email);
+            return Optional.empty();
+        }
+        return Optional.of(copy(employee));
+    }
+
+    //stamp to take before loading the employee with this id, see putLoaded
+    public long loadStamp(long id) {
+        return idStamps.get(stripe(id));
+    }
+
+    //stamp to take before loading employees by anything but one id, see putLoaded
+    public long loadStamp() {
+        return stamp.get();
+    }
+
+    //caches the new state after a write, loads that are still running can no longer cache what they read
+    public void put(Employee employee) {
+        invalidate(employee.getId());
+        store(employee);
+    }
+
+    //caches an employee read from the database, unless there was a write since the stamp was taken.
+    //The stamp is checked again after the put: a write that bumped it meanwhile may not have seen the new entry
+    public void putLoaded(Employee employee, long loadStamp, boolean stampOfId) {
+        if (currentStamp(employee.getId(), stampOfId) != loadStamp) {
+            return;
+        }
+        Employee cached = store(employee);
+        if (currentStamp(employee.getId(), stampOfId) != loadStamp) {
+            employeesById.asMap().remove(employee.getId(), cached);
+        }
+    }
+
+    //call after the write has committed, so that loads started before it do not cache the old row
+    public void evict(long id) {
+        invalidate(id);
+        Employee previous = employeesById.asMap().remove(id);
+        if (previous != null) {
+            idsByEmail.invalidate(previous.getEmail());
+        }
+    }
+
+    private Employee store(Employee employee) {
+        Employee cached = copy(employee);
+        Employee previous = employeesById.asMap().put(employee.getId(), cached);
+        if (previous != null && !previous.getEmail().equals(employee.getEmail())) {
+            idsByEmail.invalidate(previous.getEmail());
+        }
+        idsByEmail.put(employee.getEmail(), employee.getId());
+        return cached;
+    }
+
+    private void invalidate(long id) {
+        idStamps.incrementAndGet(stripe(id));
+        stamp.incrementAndGet();
+    }
+
+    private long currentStamp(long id, boolean stampOfId) {
+        return stampOfId ? idStamps.get(stripe(id)) : stamp.get();
+    }
+
+    private static int stripe(long id) {
+        return (int) (id ^ (id >>> 32)) & (STAMP_STRIPES - 1);
+    }
+
+    public void clear() {
+        for (int stripe = 0; stripe < STAMP_STRIPES; stripe++) {
+            idStamps.incrementAndGet(stripe);
+        }
+        stamp.incrementAndGet();
+        employeesById.invalidateAll();
+        idsByEmail.invalidateAll();
+    }
+
+    //publishes the hit, miss and eviction counters of both caches
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, employeesById, "employeesById");
+        CaffeineCacheMetrics.monitor(registry, idsByEmail, "employeeIdsByEmail");
+    }
+
+    //hit, miss and eviction counters of the lookups by id
+    public CacheStats stats() {
+        return employeesById.stats();
+    }
+
+    //hit, miss and eviction counters of the lookups by email
+    public CacheStats emailStats() {
+        return idsByEmail.stats();
+    }
+
+    private static Employee copy(Employee employee) {
+        return Employee.builder()
+                .id(employee.getId())
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email(employee.getEmail())
+                .version(employee.getVersion())
+                .build();
+    }
+}
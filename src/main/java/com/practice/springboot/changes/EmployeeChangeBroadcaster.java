@@ -0,0 +1,217 @@
+package com.practice.springboot.changes;
+
+import com.practice.springboot.config.EmployeeProperties;
+import com.practice.springboot.model.EmployeeChangeEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*Pushes the change feed to Server-Sent Events subscribers.
+* One dispatcher thread waits for new changes and hands every subscriber that is behind to a small pool of
+* sender threads. A subscriber is queued at most once at a time and sends at most MAX_EVENTS_PER_DRAIN changes
+* before it goes to the back of the queue, so a subscriber replaying a long backlog or a slow client only
+* delays the others by one round, and thousands of subscribers need no more than the pool's threads.
+* Writers are never involved: they only append to the feed.*/
+
+@Component
+public class EmployeeChangeBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeChangeBroadcaster.class);
+
+    private static final int MAX_EVENTS_PER_DRAIN = 500;
+
+    private EmployeeChangeFeed employeeChangeFeed;
+
+    private EmployeeProperties.Changes config;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private ExecutorService senders;
+
+    private Thread dispatcher;
+
+    private volatile boolean running;
+
+    private Counter resyncs;
+
+    private class Subscriber {
+
+        private final SseEmitter emitter;
+
+        //sequence of the last change sent to this subscriber
+        private volatile long position;
+
+        //queued or being drained by a sender
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        //nothing was sent for a while, send a comment so proxies do not close the idle connection
+        private volatile boolean heartbeatDue;
+
+        private Subscriber(SseEmitter emitter, long position) {
+            this.emitter = emitter;
+            this.position = position;
+        }
+    }
+
+    public EmployeeChangeBroadcaster(EmployeeChangeFeed employeeChangeFeed, EmployeeProperties employeeProperties,
+                                     MeterRegistry meterRegistry) {
+        this.employeeChangeFeed = employeeChangeFeed;
+        this.config = employeeProperties.getChanges();
+        meterRegistry.gauge("employee.changes.subscribers", subscribers, Set::size);
+        this.resyncs = Counter.builder("employee.changes.resyncs")
+                .description("Subscribers that asked for changes no longer buffered and were told to resync")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        senders = Executors.newFixedThreadPool(config.getSenderThreads(),
+                new CustomizableThreadFactory("employee-changes-sender-"));
+        dispatcher = new CustomizableThreadFactory("employee-changes-dispatcher-").newThread(this::dispatch);
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        dispatcher.interrupt();
+        dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    //since is the last sequence the client has seen, null for only the changes from now on
+    public SseEmitter subscribe(Long since) {
+        SseEmitter emitter = new SseEmitter(config.getEmitterTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter, since != null ? since : employeeChangeFeed.getLastSequence());
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        //replays the buffered changes after since right away
+        schedule(subscriber);
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private void dispatch() {
+        long dispatched = employeeChangeFeed.getLastSequence();
+        while (running) {
+            try {
+                boolean changed = employeeChangeFeed.awaitAfter(dispatched, config.getHeartbeat().toMillis(),
+                        TimeUnit.MILLISECONDS);
+                if (changed) {
+                    dispatched = employeeChangeFeed.getLastSequence();
+                }
+                for (Subscriber subscriber : subscribers) {
+                    if (!changed) {
+                        subscriber.heartbeatDue = true;
+                        schedule(subscriber);
+                    } else if (subscriber.position < dispatched) {
+                        schedule(subscriber);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (!subscriber.scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            senders.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            //shutting down
+            subscriber.scheduled.set(false);
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        boolean open;
+        try {
+            open = send(subscriber);
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        //more changes than one drain sends, or changes appended while the dispatcher saw this subscriber as scheduled
+        if (open && subscriber.position < employeeChangeFeed.getLastSequence()) {
+            schedule(subscriber);
+        }
+    }
+
+    //false once the subscriber is gone
+    private boolean send(Subscriber subscriber) {
+        if (!subscribers.contains(subscriber)) {
+            return false;
+        }
+        try {
+            Optional<List<EmployeeChangeEvent>> events = employeeChangeFeed.readAfter(subscriber.position,
+                    MAX_EVENTS_PER_DRAIN);
+            if (events.isEmpty()) {
+                resync(subscriber);
+                return false;
+            }
+            for (EmployeeChangeEvent event : events.get()) {
+                subscriber.emitter.send(event(event));
+                subscriber.position = event.getSequence();
+            }
+            if (events.get().isEmpty() && subscriber.heartbeatDue) {
+                subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+            subscriber.heartbeatDue = false;
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            //the client went away or the emitter timed out
+            logger.debug("Dropping change subscriber", e);
+            subscribers.remove(subscriber);
+            return false;
+        }
+    }
+
+    //the changes the subscriber asked for are overwritten: it has to reload and subscribe again from the current sequence
+    private void resync(Subscriber subscriber) throws IOException {
+        subscribers.remove(subscriber);
+        resyncs.increment();
+        EmployeeChangeEvent resync = EmployeeChangeEvent.builder()
+                .sequence(employeeChangeFeed.getLastSequence())
+                .type(EmployeeChangeEvent.Type.RESYNC)
+                .build();
+        subscriber.emitter.send(event(resync));
+        subscriber.emitter.complete();
+    }
+
+    private static SseEmitter.SseEventBuilder event(EmployeeChangeEvent event) {
+        return SseEmitter.event()
+                .id(Long.toString(event.getSequence()))
+                .name(event.getType().name())
+                .data(event, MediaType.APPLICATION_JSON);
+    }
+}
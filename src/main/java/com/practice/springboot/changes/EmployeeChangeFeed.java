@@ -0,0 +1,137 @@
+package com.practice.springboot.changes;
+
+import com.practice.springboot.config.EmployeeProperties;
+import com.practice.springboot.model.Employee;
+import com.practice.springboot.model.EmployeeChangeEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*In-memory log of the last committed changes of the employees table.
+* Every change gets the next sequence number and is kept in a ring buffer, the oldest change is overwritten first.
+* Subscribers replay from the buffer, so catching up never touches the database. A subscriber that fell
+* further behind than the buffer reaches has to resync. Appending only takes a short lock and wakes the
+* dispatcher of EmployeeChangeBroadcaster, the write path never waits for a subscriber.*/
+
+@Component
+public class EmployeeChangeFeed {
+
+    private final EmployeeChangeEvent[] buffer;
+
+    //sequence of the newest change, 0 before the first one. Only written under the lock
+    private volatile long lastSequence;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition appended = lock.newCondition();
+
+    public EmployeeChangeFeed(EmployeeProperties employeeProperties) {
+        this.buffer = new EmployeeChangeEvent[employeeProperties.getChanges().getBufferSize()];
+    }
+
+    //appends the change once the current transaction commits, right away without a transaction.
+    //A rolled back change is never published and the sequence order is the commit order
+    public void publish(EmployeeChangeEvent.Type type, Employee employee) {
+        publish(type, employee.getId(), employee);
+    }
+
+    public void publish(EmployeeChangeEvent.Type type, long employeeId, Employee employee) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    append(type, employeeId, employee);
+                }
+            });
+        } else {
+            append(type, employeeId, employee);
+        }
+    }
+
+    //all employees of one transaction, with a single synchronization for the whole batch
+    public void publishAll(EmployeeChangeEvent.Type type, List<Employee> employees) {
+        if (employees.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    employees.forEach(employee -> append(type, employee.getId(), employee));
+                }
+            });
+        } else {
+            employees.forEach(employee -> append(type, employee.getId(), employee));
+        }
+    }
+
+    EmployeeChangeEvent append(EmployeeChangeEvent.Type type, long employeeId, Employee employee) {
+        lock.lock();
+        try {
+            long sequence = lastSequence + 1;
+            EmployeeChangeEvent event = new EmployeeChangeEvent(sequence, type, employeeId, employee);
+            buffer[slot(sequence)] = event;
+            lastSequence = sequence;
+            appended.signalAll();
+            return event;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    //the changes after the given sequence, at most max of them. Empty if some of them were already overwritten,
+    //or if the sequence is from before a restart and lies ahead of this feed
+    public Optional<List<EmployeeChangeEvent>> readAfter(long sequence, int max) {
+        long last = lastSequence;
+        if (sequence > last || sequence < last - buffer.length) {
+            return Optional.empty();
+        }
+        int count = (int) Math.min(max, last - sequence);
+        List<EmployeeChangeEvent> events = new ArrayList<>(count);
+        for (long next = sequence + 1; next <= sequence + count; next++) {
+            EmployeeChangeEvent event = buffer[slot(next)];
+            //overwritten by a writer since lastSequence was read
+            if (event == null || event.getSequence() != next) {
+                return Optional.empty();
+            }
+            events.add(event);
+        }
+        return Optional.of(events);
+    }
+
+    //blocks until a change after the given sequence exists or the timeout elapsed, true if there is one
+    public boolean awaitAfter(long sequence, long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (lastSequence <= sequence) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = appended.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % buffer.length);
+    }
+}
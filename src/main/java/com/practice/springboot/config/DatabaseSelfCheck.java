@@ -0,0 +1,84 @@
+package com.practice.springboot.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/*Logs the connection pool, JDBC and Hibernate settings the application actually runs with, once it is ready.
+* Property files of several profiles, command line arguments and the pool sizers all change them,
+* this line shows the outcome without attaching a debugger to a production instance.*/
+
+@Component
+public class DatabaseSelfCheck {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseSelfCheck.class);
+
+    private static final List<String> HIBERNATE_SETTINGS = List.of(
+            "hibernate.jdbc.batch_size",
+            "hibernate.order_inserts",
+            "hibernate.order_updates",
+            "hibernate.jdbc.batch_versioned_data",
+            "hibernate.query.plan_cache_max_size",
+            "hibernate.query.in_clause_parameter_padding",
+            "hibernate.cache.use_second_level_cache");
+
+    private Map<String, HikariDataSource> pools;
+
+    private EntityManagerFactory entityManagerFactory;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private Environment environment;
+
+    public DatabaseSelfCheck(Map<String, HikariDataSource> pools, EntityManagerFactory entityManagerFactory,
+                             JdbcTemplate jdbcTemplate, Environment environment) {
+        this.pools = pools;
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.environment = environment;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void logEffectiveSettings() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%n  profiles: %s, cores: %d", Arrays.toString(environment.getActiveProfiles()),
+                Runtime.getRuntime().availableProcessors()));
+        pools.forEach((name, pool) -> report.append(String.format(
+                "%n  pool %s: maximumPoolSize=%d minimumIdle=%d connectionTimeout=%dms leakDetectionThreshold=%dms url=%s",
+                pool.getPoolName(), pool.getMaximumPoolSize(), pool.getMinimumIdle(), pool.getConnectionTimeout(),
+                pool.getLeakDetectionThreshold(), withoutCredentials(pool.getJdbcUrl()))));
+        Map<String, Object> hibernateProperties = entityManagerFactory.getProperties();
+        for (String setting : HIBERNATE_SETTINGS) {
+            report.append(String.format("%n  %s=%s", setting, hibernateProperties.getOrDefault(setting, "(default)")));
+        }
+        //set on the JPA vendor adapter, so it is not among the properties of the EntityManagerFactory
+        report.append(String.format("%n  spring.jpa.show-sql=%s", environment.getProperty("spring.jpa.show-sql", "false")));
+        report.append(String.format("%n  statement cache: %s", statementCacheSize()));
+        logger.info("Effective database settings:{}", report);
+    }
+
+    //only H2 reports its server-side cache, other databases configure it in the driver (data source properties)
+    private String statementCacheSize() {
+        try {
+            return "QUERY_CACHE_SIZE=" + jdbcTemplate.queryForObject(
+                    "select setting_value from information_schema.settings where setting_name = 'QUERY_CACHE_SIZE'",
+                    String.class);
+        } catch (RuntimeException e) {
+            return "see the data source properties of the driver";
+        }
+    }
+
+    private static String withoutCredentials(String url) {
+        return url == null ? null : url.replaceAll("(?i)(password|user)=[^;&]*", "$1=***");
+    }
+}
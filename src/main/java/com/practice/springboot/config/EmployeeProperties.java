@@ -0,0 +1,183 @@
+package com.practice.springboot.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+//binds the "employee.*" properties from application.properties
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "employee")
+public class EmployeeProperties {
+
+    private Batch batch = new Batch();
+
+    private Cache cache = new Cache();
+
+    private Threads threads = new Threads();
+
+    private Async async = new Async();
+
+    private Ingest ingest = new Ingest();
+
+    private Replica replica = new Replica();
+
+    private Startup startup = new Startup();
+
+    private Changes changes = new Changes();
+
+    private RateLimit rateLimit = new RateLimit();
+
+    private Sharding sharding = new Sharding();
+
+    @Getter
+    @Setter
+    public static class Batch {
+        //number of rows sent to the database in one JDBC batch, also used as hibernate.jdbc.batch_size.
+        //0 or less turns batching off, saveEmployees then flushes once at the end
+        private int size = 50;
+    }
+
+    @Getter
+    @Setter
+    public static class Cache {
+        //maximum number of employees kept in memory, the least valuable entries are evicted first
+        private long maxSize = 10_000;
+
+        //how long an employee stays cached after it was loaded or written
+        private Duration ttl = Duration.ofMinutes(10);
+
+        //ids missing the cache within this window are loaded with one query, 0 loads every id on its own
+        private Duration batchWindow = Duration.ZERO;
+    }
+
+    @Getter
+    @Setter
+    public static class Threads {
+        //run requests on virtual threads instead of the Tomcat thread pool, needs a Java 21+ runtime
+        private boolean virtual = false;
+
+        //with virtual threads the connection pool is what limits how many requests use the database at once
+        private int maxDbConnections = Runtime.getRuntime().availableProcessors() * 4;
+    }
+
+    @Getter
+    @Setter
+    public static class Async {
+        //threads of the async API that run the blocking service calls, request threads are released meanwhile
+        private int threads = Runtime.getRuntime().availableProcessors() * 2;
+
+        //calls waiting for a free thread, further calls are rejected with 503
+        private int queueCapacity = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class Ingest {
+        //employees waiting to be written, further submissions are rejected with 429
+        private int queueCapacity = 10_000;
+
+        //most employees written by one micro-batch: one email check and one transaction for all of them
+        private int batchSize = 500;
+
+        //how long the outcome of a submission can be polled after it was written
+        private Duration statusTtl = Duration.ofMinutes(10);
+
+        //most outcomes kept for polling, the oldest ones are dropped before their ttl under sustained load
+        private long statusMaxSize = 100_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Replica {
+        //route read-only transactions to the replica below, writes stay on spring.datasource
+        private boolean enabled = false;
+
+        private String url;
+
+        private String username = "sa";
+
+        private String password = "";
+
+        //how far the replica may be behind: a client reads from the primary for this long after its last write
+        private Duration maxLag = Duration.ofSeconds(2);
+    }
+
+    @Getter
+    @Setter
+    public static class Startup {
+        //number of slowest startup steps logged once the application is ready, 0 logs none
+        private int reportSize = 10;
+
+        //stop right after startup, used by the training run that records the AppCDS archive
+        private boolean exitAfterReady = false;
+    }
+
+    @Getter
+    @Setter
+    public static class Changes {
+        //changes kept for replay, a subscriber further behind than this has to resync
+        private int bufferSize = 65_536;
+
+        //threads writing to the subscribers, each subscriber is served by one of them at a time
+        private int senderThreads = 2;
+
+        //an idle subscriber gets a comment this often so the connection is not closed by a proxy
+        private Duration heartbeat = Duration.ofSeconds(15);
+
+        //the stream ends after this long, the client reconnects with Last-Event-ID
+        private Duration emitterTimeout = Duration.ofMinutes(30);
+    }
+
+    @Getter
+    @Setter
+    public static class RateLimit {
+        //shed load in front of the employee API, see RateLimitFilter
+        private boolean enabled = true;
+
+        //sustained requests per second of one client and how many it may send at once after being idle
+        private double requestsPerSecond = 100;
+        private int burst = 200;
+
+        //request header naming the client, e.g. X-Client-Id. Off by default: only set it when a gateway in front
+        //sets the header and drops it from client requests, anyone could pick a fresh bucket per request otherwise
+        private String clientHeader;
+
+        //clients with a token bucket, the least recently seen are dropped first
+        private long maxClients = 100_000;
+
+        //adaptive concurrency limit of every endpoint: where it starts and between which bounds it moves
+        private int initialLimit = 20;
+        private int minLimit = 4;
+        private int maxLimit = 200;
+    }
+
+    @Getter
+    @Setter
+    public static class Sharding {
+        //spread the employees over the shards below instead of storing them in spring.datasource
+        private boolean enabled = false;
+
+        //unique per running instance, part of every generated id (0 to 1023)
+        private int workerId = 0;
+
+        //rows are placed by a hash of the id modulo the number of shards, the list must not change once it has data
+        private List<Shard> shards = new ArrayList<>();
+    }
+
+    @Getter
+    @Setter
+    public static class Shard {
+        private String url;
+
+        private String username = "sa";
+
+        private String password = "";
+    }
+}
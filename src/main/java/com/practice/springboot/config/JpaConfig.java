@@ -0,0 +1,19 @@
+package com.practice.springboot.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JpaConfig {
+
+    //keep the Hibernate JDBC batch size in sync with the batch size the service flushes at
+    @Bean
+    public HibernatePropertiesCustomizer batchSizeCustomizer(EmployeeProperties employeeProperties) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.STATEMENT_BATCH_SIZE, employeeProperties.getBatch().getSize());
+            hibernateProperties.put(AvailableSettings.ORDER_INSERTS, true);
+        };
+    }
+}
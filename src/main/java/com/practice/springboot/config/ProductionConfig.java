@@ -0,0 +1,46 @@
+package com.practice.springboot.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+/*Pool sizing of the production profile, the other settings are in application-production.properties.
+* The pool is sized from the cores instead of Hikari's fixed 10: the database can only run about two
+* statements per core at once (one on the CPU, one waiting for I/O), more connections only add queueing.*/
+
+@Configuration
+@Profile("production")
+public class ProductionConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductionConfig.class);
+
+    static final String MAXIMUM_POOL_SIZE = "spring.datasource.hikari.maximum-pool-size";
+
+    //an explicit pool size wins, and with virtual threads VirtualThreadConfig sizes the pool
+    @Bean
+    public static BeanPostProcessor productionPoolSizer(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource && !environment.containsProperty(MAXIMUM_POOL_SIZE)
+                        && !environment.getProperty("employee.threads.virtual", Boolean.class, false)) {
+                    int poolSize = poolSize(Runtime.getRuntime().availableProcessors());
+                    dataSource.setMaximumPoolSize(poolSize);
+                    //a fixed pool: no connection is opened while a request waits for it
+                    dataSource.setMinimumIdle(poolSize);
+                    logger.info("Connection pool {} sized to {} connections", beanName, poolSize);
+                }
+                return bean;
+            }
+        };
+    }
+
+    static int poolSize(int cores) {
+        return cores * 2 + 1;
+    }
+}
@@ -0,0 +1,27 @@
+package com.practice.springboot.config;
+
+import com.practice.springboot.ratelimit.RateLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+//rate limiting and load shedding of the employee API, disabled with employee.rate-limit.enabled=false
+@Configuration
+@ConditionalOnProperty(prefix = "employee.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+    //only the employee API, actuator endpoints stay reachable under overload.
+    //Runs early, a shed request should cost as little as possible
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(EmployeeProperties employeeProperties,
+                                                                   MeterRegistry meterRegistry) {
+        FilterRegistrationBean<RateLimitFilter> registration =
+                new FilterRegistrationBean<>(new RateLimitFilter(employeeProperties.getRateLimit(), meterRegistry));
+        registration.addUrlPatterns("/api/employees", "/api/employees/*", "/api/async/employees", "/api/async/employees/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,80 @@
+package com.practice.springboot.config;
+
+import com.practice.springboot.routing.ReplicaJpaDialect;
+import com.practice.springboot.routing.ReplicaRoutingDataSource;
+import com.practice.springboot.routing.ReplicaStickiness;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+import javax.sql.DataSource;
+
+/*Opt-in read replica (employee.replica.enabled=true).
+* The primary pool is built from spring.datasource.*, the replica pool from employee.replica.*,
+* and the application only sees the routing data source in front of both.
+* Both pools take the pool settings of spring.datasource.hikari.*, like Boot's own pool would.*/
+
+@Configuration
+@ConditionalOnProperty(prefix = "employee.replica", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource replicaDataSource(EmployeeProperties employeeProperties) {
+        EmployeeProperties.Replica replica = employeeProperties.getReplica();
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replica.getUrl())
+                .username(replica.getUsername())
+                .password(replica.getPassword())
+                .build();
+        dataSource.setPoolName("replica");
+        //nothing is ever written through this pool
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaStickiness replicaStickiness(EmployeeProperties employeeProperties) {
+        return new ReplicaStickiness(employeeProperties.getReplica().getMaxLag());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource,
+                                 ReplicaStickiness replicaStickiness) {
+        return new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, replicaStickiness));
+    }
+
+    //the dialect has to be set before the entity manager factory initializes, it falls back to the vendor's dialect otherwise
+    @Bean
+    public static BeanPostProcessor replicaJpaDialectPostProcessor(ObjectProvider<ReplicaStickiness> replicaStickiness) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof AbstractEntityManagerFactoryBean entityManagerFactory) {
+                    entityManagerFactory.setJpaDialect(new ReplicaJpaDialect(replicaStickiness.getObject()));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,77 @@
+package com.practice.springboot.config;
+
+import com.practice.springboot.sharding.ShardedEmployeeRepository;
+import com.practice.springboot.sharding.SnowflakeIdGenerator;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*Opt-in sharding (employee.sharding.enabled=true), the employee API is then served by ShardedEmployeeServiceImpl.
+* The shard pools are no DataSource beans: spring.datasource and JPA stay as they are and are not used for employees.*/
+
+@Configuration
+@ConditionalOnProperty(prefix = "employee.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+
+    //the pools of the shards and the threads that query them in parallel, closed with the context
+    public static class ShardPools implements AutoCloseable {
+
+        private final List<HikariDataSource> dataSources = new ArrayList<>();
+
+        private final ExecutorService scatterExecutor;
+
+        ShardPools(EmployeeProperties.Sharding config) {
+            if (config.getShards().isEmpty()) {
+                throw new IllegalStateException("employee.sharding.enabled=true needs at least one employee.sharding.shards entry");
+            }
+            for (EmployeeProperties.Shard shard : config.getShards()) {
+                HikariDataSource dataSource = DataSourceBuilder.create()
+                        .type(HikariDataSource.class)
+                        .url(shard.getUrl())
+                        .username(shard.getUsername())
+                        .password(shard.getPassword())
+                        .build();
+                dataSource.setPoolName("shard-" + dataSources.size());
+                dataSources.add(dataSource);
+                new ResourceDatabasePopulator(new ClassPathResource("sharding-schema.sql")).execute(dataSource);
+            }
+            //a scatter-gather needs one thread per shard, two requests can scatter at the same time
+            this.scatterExecutor = Executors.newFixedThreadPool(dataSources.size() * 2,
+                    new CustomizableThreadFactory("employee-shard-"));
+        }
+
+        @Override
+        public void close() {
+            scatterExecutor.shutdown();
+            dataSources.forEach(HikariDataSource::close);
+        }
+    }
+
+    @Bean(destroyMethod = "close")
+    public ShardPools shardPools(EmployeeProperties employeeProperties) {
+        return new ShardPools(employeeProperties.getSharding());
+    }
+
+    @Bean
+    public SnowflakeIdGenerator snowflakeIdGenerator(EmployeeProperties employeeProperties) {
+        return new SnowflakeIdGenerator(employeeProperties.getSharding().getWorkerId());
+    }
+
+    @Bean
+    public ShardedEmployeeRepository shardedEmployeeRepository(ShardPools shardPools,
+                                                               SnowflakeIdGenerator snowflakeIdGenerator) {
+        return new ShardedEmployeeRepository(List.<DataSource>copyOf(shardPools.dataSources), snowflakeIdGenerator,
+                shardPools.scatterExecutor);
+    }
+}
@@ -0,0 +1,76 @@
+package com.practice.springboot.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+
+/*Logs the slowest beans of the startup once the application is ready.
+* The steps are only recorded when main() installed a BufferingApplicationStartup, tests and benchmarks boot without it.
+* The buffer is drained afterwards, so the recorded steps do not stay in memory.*/
+
+@Component
+public class StartupTimingReport {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimingReport.class);
+
+    private static final String BEAN_INSTANTIATION_STEP = "spring.beans.instantiate";
+
+    private ApplicationStartup applicationStartup;
+
+    private EmployeeProperties employeeProperties;
+
+    public StartupTimingReport(ApplicationStartup applicationStartup, EmployeeProperties employeeProperties) {
+        this.applicationStartup = applicationStartup;
+        this.employeeProperties = employeeProperties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report(ApplicationReadyEvent event) {
+        if (applicationStartup instanceof BufferingApplicationStartup bufferingStartup) {
+            logSlowestBeans(bufferingStartup.drainBufferedTimeline(), event.getTimeTaken());
+        }
+        if (employeeProperties.getStartup().isExitAfterReady()) {
+            ConfigurableApplicationContext context = event.getApplicationContext();
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    private void logSlowestBeans(StartupTimeline timeline, Duration timeTaken) {
+        int reportSize = employeeProperties.getStartup().getReportSize();
+        if (reportSize <= 0) {
+            return;
+        }
+        //the time of a bean includes the beans it created as dependencies
+        List<StartupTimeline.TimelineEvent> slowest = timeline.getEvents().stream()
+                .filter(timelineEvent -> timelineEvent.getStartupStep().getName().equals(BEAN_INSTANTIATION_STEP))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(reportSize)
+                .toList();
+        StringBuilder report = new StringBuilder();
+        for (StartupTimeline.TimelineEvent timelineEvent : slowest) {
+            report.append(String.format("%n%8d ms  %s", timelineEvent.getDuration().toMillis(), beanName(timelineEvent)));
+        }
+        logger.info("Started in {} ms, slowest beans:{}", timeTaken == null ? -1 : timeTaken.toMillis(), report);
+    }
+
+    private static String beanName(StartupTimeline.TimelineEvent timelineEvent) {
+        for (StartupStep.Tag tag : timelineEvent.getStartupStep().getTags()) {
+            if (tag.getKey().equals("beanName")) {
+                return tag.getValue();
+            }
+        }
+        return "?";
+    }
+}
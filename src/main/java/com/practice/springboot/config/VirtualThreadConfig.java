@@ -0,0 +1,72 @@
+package com.practice.springboot.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*Opt-in virtual thread mode, enabled with employee.threads.virtual=true.
+* Tomcat hands every request to a new virtual thread, so the service and repository calls
+* run on it as well, and the async work of Spring MVC (streamed responses) uses virtual threads too.
+* The project compiles for Java 17, so the virtual thread executor is looked up by reflection
+* and the mode is only available when the application runs on Java 21 or newer.*/
+
+@Configuration
+@ConditionalOnProperty(prefix = "employee.threads", name = "virtual", havingValue = "true")
+public class VirtualThreadConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("employee.threads.virtual=true needs a Java 21+ runtime, running on "
+                    + Runtime.version(), e);
+        }
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor) {
+        return new TaskExecutorAdapter(virtualThreadExecutor);
+    }
+
+    //virtual threads are not a scarce resource anymore, the connection pool now bounds database concurrency.
+    //An explicit pool size wins, like it does in ProductionConfig
+    @Bean
+    public static BeanPostProcessor virtualThreadPoolSizer(ObjectProvider<EmployeeProperties> employeeProperties,
+                                                           Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource && !environment.containsProperty(ProductionConfig.MAXIMUM_POOL_SIZE)) {
+                    int maxDbConnections = employeeProperties.getObject().getThreads().getMaxDbConnections();
+                    dataSource.setMaximumPoolSize(maxDbConnections);
+                    dataSource.setMinimumIdle(maxDbConnections);
+                    logger.info("Virtual threads enabled, connection pool sized to {} connections", maxDbConnections);
+                }
+                return bean;
+            }
+        };
+    }
+}
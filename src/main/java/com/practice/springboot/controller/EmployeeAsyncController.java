@@ -0,0 +1,128 @@
+package com.practice.springboot.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.practice.springboot.model.Employee;
+import com.practice.springboot.service.EmployeeAsyncService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/*Same contract as EmployeeController, served asynchronously.
+* Every handler returns right away and the request thread goes back to Tomcat,
+* the response is written once EmployeeAsyncService completes.*/
+
+@RestController
+@RequestMapping("/api/async/employees")
+public class EmployeeAsyncController {
+
+    //streamed rows are serialized into chunks of about this size before they are written to the response
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    private EmployeeAsyncService employeeAsyncService;
+
+    private ObjectWriter rowWriter;
+
+    //the full list streams for as long as the table takes, the same limit as every other async request
+    private Long emitterTimeout;
+
+    public EmployeeAsyncController(EmployeeAsyncService employeeAsyncService, ObjectMapper objectMapper,
+                                   ObjectProvider<WebMvcProperties> webMvcProperties) {
+        this.employeeAsyncService = employeeAsyncService;
+        this.rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        //not there when the context runs without a web server (the benchmarks), nothing is served then
+        Duration requestTimeout = webMvcProperties.getIfAvailable(WebMvcProperties::new).getAsync().getRequestTimeout();
+        this.emitterTimeout = requestTimeout == null ? null : requestTimeout.toMillis();
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public CompletableFuture<Employee> createEmployee(@RequestBody Employee employee) {
+        return employeeAsyncService.saveEmployee(employee);
+    }
+
+    //the JSON array is written while the rows are read, a slow client slows down the database cursor
+    //instead of the rows piling up in memory
+    @GetMapping
+    public ResponseEntity<ResponseBodyEmitter> getAllEmployees() throws IOException {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(emitterTimeout);
+        ByteArrayOutputStream chunk = new ByteArrayOutputStream(CHUNK_SIZE);
+        JsonGenerator generator = rowWriter.getFactory().createGenerator(chunk);
+        generator.writeStartArray();
+
+        employeeAsyncService.streamAllEmployees(employee -> {
+            try {
+                rowWriter.writeValue(generator, employee);
+                generator.flush();
+                if (chunk.size() >= CHUNK_SIZE) {
+                    sendChunk(emitter, chunk);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).whenComplete((result, exception) -> {
+            if (exception != null) {
+                emitter.completeWithError(exception);
+                return;
+            }
+            try {
+                generator.writeEndArray();
+                generator.flush();
+                sendChunk(emitter, chunk);
+                emitter.complete();
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(emitter);
+    }
+
+    private static void sendChunk(ResponseBodyEmitter emitter, ByteArrayOutputStream chunk) throws IOException {
+        emitter.send(chunk.toByteArray(), MediaType.APPLICATION_JSON);
+        chunk.reset();
+    }
+
+    @GetMapping("{id}")
+    public CompletableFuture<ResponseEntity<Employee>> getEmployeeById(@PathVariable("id") long employeeId) {
+        return employeeAsyncService.getEmployeeById(employeeId)
+                .thenApply(employee -> employee
+                        .map(ResponseEntity::ok)
+                        .orElseGet(() -> ResponseEntity.notFound().build()));
+    }
+
+    @PutMapping("{id}")
+    public CompletableFuture<ResponseEntity<Employee>> updateEmployee(@PathVariable("id") long employeeId,
+                                                                      @RequestBody Employee employee) {
+        return employeeAsyncService.updateEmployee(employeeId, employee)
+                .thenApply(updatedEmployee -> updatedEmployee
+                        .map(ResponseEntity::ok)
+                        .orElseGet(() -> ResponseEntity.notFound().build()));
+    }
+
+    @DeleteMapping("{id}")
+    public CompletableFuture<ResponseEntity<String>> deleteEmployee(@PathVariable("id") long id) {
+        return employeeAsyncService.deleteEmployee(id)
+                .thenApply(deleted -> deleted
+                        ? new ResponseEntity<>("Employee deleted successfully!.", HttpStatus.OK)
+                        : ResponseEntity.notFound().build());
+    }
+
+    //the async pool and its queue are full
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> handleRejectedExecution(RejectedExecutionException e) {
+        return new ResponseEntity<>("Too many concurrent requests, try again later.", HttpStatus.SERVICE_UNAVAILABLE);
+    }
+}
@@ -0,0 +1,35 @@
+package com.practice.springboot.controller;
+
+import com.practice.springboot.changes.EmployeeChangeBroadcaster;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/*Change feed of the employees table as Server-Sent Events, instead of polling GET /api/employees.
+* GET /api/employees/changes?since=<seq> first replays the buffered changes after seq, then streams new ones.
+* Every event has the sequence as id, so a reconnecting client resumes with the Last-Event-ID header.
+* A RESYNC event ends the stream: the changes after seq are no longer buffered, the client reloads
+* GET /api/employees and subscribes again with since set to the sequence of the RESYNC event.*/
+
+@RestController
+@RequestMapping("/api/employees/changes")
+public class EmployeeChangeController {
+
+    private EmployeeChangeBroadcaster employeeChangeBroadcaster;
+
+    public EmployeeChangeController(EmployeeChangeBroadcaster employeeChangeBroadcaster) {
+        this.employeeChangeBroadcaster = employeeChangeBroadcaster;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestParam(value = "since", required = false) Long since,
+                                @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        Long position = since != null ? since : lastEventId;
+        if (position != null && position < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "since must not be negative");
+        }
+        return employeeChangeBroadcaster.subscribe(position);
+    }
+}
@@ -1,23 +1,71 @@
 package com.practice.springboot.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.practice.springboot.model.Employee;
+import com.practice.springboot.exception.EmployeeVersionConflictException;
+import com.practice.springboot.model.EmployeeBatchResult;
+import com.practice.springboot.model.EmployeeMultiGetResult;
+import com.practice.springboot.model.EmployeeSearchResult;
+import com.practice.springboot.model.EmployeesVersion;
+import com.practice.springboot.repository.EmployeeRepositoryCustom;
 import com.practice.springboot.service.EmployeeService;
+import com.practice.springboot.wire.EmployeeProtobuf;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/employees")
 public class EmployeeController {
 
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
+    //formats of the stream, NDJSON first: it is sent when the client accepts anything or sends no Accept header
+    private static final List<MediaType> STREAM_MEDIA_TYPES = List.of(
+            MediaType.parseMediaType(APPLICATION_NDJSON_VALUE),
+            MediaType.APPLICATION_CBOR,
+            APPLICATION_SMILE,
+            EmployeeProtobuf.APPLICATION_PROTOBUF);
+
+    //upper bound for one keyset page, larger requests are clamped to it. Also the most ids one multi-get may ask for
+    static final int MAX_PAGE_SIZE = 1000;
+
     private EmployeeService employeeService;
 
+    //streamed rows are written one by one, so do not flush the response after every single row
+    private ObjectWriter rowWriter;
+    private ObjectWriter cborRowWriter;
+    private ObjectWriter smileRowWriter;
+
     //constructor based dependency injection
-    public EmployeeController(EmployeeService employeeService) {
+    public EmployeeController(EmployeeService employeeService, ObjectMapper objectMapper,
+                              MappingJackson2CborHttpMessageConverter cborConverter,
+                              MappingJackson2SmileHttpMessageConverter smileConverter) {
         this.employeeService = employeeService;
+        this.rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.cborRowWriter = cborConverter.getObjectMapper().writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.smileRowWriter = smileConverter.getObjectMapper().writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     @PostMapping
@@ -26,36 +74,238 @@ public class EmployeeController {
         return employeeService.saveEmployee(employee);
     }
 
+    //bulk create, rows with an email that is already taken are reported back instead of failing the whole request
+    @PostMapping("batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public EmployeeBatchResult createEmployees(@RequestBody List<Employee> employees) {
+        return employeeService.saveEmployees(employees);
+    }
+
+    //conditional GET: the table watermark is read first, so an unchanged list costs one aggregate query and a 304.
+    //A change between the two reads only makes the ETag older than the body, the client then just refetches.
     @GetMapping
-    public List<Employee> getAllEmployees() {
-        return employeeService.getAllEmployees();
+    public ResponseEntity<List<Employee>> getAllEmployees(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String eTag = eTag(employeeService.getEmployeesVersion());
+        if (ifNoneMatch(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(employeeService.getAllEmployees());
+    }
+
+    //keyset pagination: GET /api/employees?after=<last seen id>&limit=<page size>
+    @GetMapping(params = {"limit", "!fields", "!ids"})
+    public List<Employee> getEmployeesPage(@RequestParam(value = "after", defaultValue = "0") long afterId,
+                                           @RequestParam("limit") int limit) {
+        return employeeService.getEmployeesAfter(afterId, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+
+    //sparse fieldsets: GET /api/employees?fields=id,email only fetches and serializes the listed fields.
+    //Works with the keyset parameters too, without limit every row is returned
+    @GetMapping(params = {"fields", "!ids"})
+    public List<Map<String, Object>> getEmployeeFields(@RequestParam("fields") List<String> fields,
+                                                       @RequestParam(value = "after", defaultValue = "0") long afterId,
+                                                       @RequestParam(value = "limit", required = false) Integer limit) {
+        //?fields= with no value would select nothing at all
+        if (fields.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "fields must list at least one employee field");
+        }
+        for (String field : fields) {
+            if (!EmployeeRepositoryCustom.FIELDS.contains(field)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown employee field: " + field);
+            }
+        }
+        int pageSize = limit == null ? 0 : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        //?fields=id,id selects id once, the order of the first occurrences is kept
+        return employeeService.getEmployeeFields(fields.stream().distinct().toList(), afterId, pageSize);
+    }
+
+    //multi-get: GET /api/employees?ids=1,2,3 answers with one query instead of one request per id
+    @GetMapping(params = "ids")
+    public EmployeeMultiGetResult getEmployeesByIds(@RequestParam("ids") List<Long> ids) {
+        return multiGet(ids);
+    }
+
+    //the same for id lists too long for a URL: POST /api/employees/_mget with a JSON array of ids
+    @PostMapping("_mget")
+    public EmployeeMultiGetResult multiGetEmployees(@RequestBody List<Long> ids) {
+        return multiGet(ids);
+    }
+
+    private EmployeeMultiGetResult multiGet(List<Long> ids) {
+        if (ids.size() > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_PAGE_SIZE + " ids per request");
+        }
+        if (ids.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ids must not contain empty values");
+        }
+        return employeeService.getEmployeesByIds(ids);
+    }
+
+    //streams the whole table, rows are written to the response while they are read. The Accept header picks the format:
+    //newline delimited JSON, a CBOR sequence (RFC 8742, one item per employee), Smile root values
+    //or length-delimited protobuf Employee messages (parseDelimitedFrom reads them one by one)
+    @GetMapping(value = "stream", produces = {APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            APPLICATION_SMILE_VALUE, EmployeeProtobuf.APPLICATION_PROTOBUF_VALUE})
+    public ResponseEntity<StreamingResponseBody> streamAllEmployees(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        MediaType mediaType = streamMediaType(accept);
+        StreamingResponseBody body;
+        if (EmployeeProtobuf.APPLICATION_PROTOBUF.equalsTypeAndSubtype(mediaType)) {
+            body = streamProtobuf();
+        } else if (MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(mediaType)) {
+            body = streamRows(cborRowWriter, false);
+        } else if (APPLICATION_SMILE.equalsTypeAndSubtype(mediaType)) {
+            body = streamRows(smileRowWriter, false);
+        } else {
+            body = streamRows(rowWriter, true);
+        }
+        return ResponseEntity.ok().contentType(mediaType).body(body);
+    }
+
+    //the most preferred stream format the client accepts, the produces condition already made sure there is one
+    private static MediaType streamMediaType(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return STREAM_MEDIA_TYPES.get(0);
+        }
+        List<MediaType> acceptedTypes = MediaType.parseMediaTypes(accept);
+        MediaType.sortBySpecificityAndQuality(acceptedTypes);
+        for (MediaType acceptedType : acceptedTypes) {
+            for (MediaType mediaType : STREAM_MEDIA_TYPES) {
+                if (acceptedType.isCompatibleWith(mediaType)) {
+                    return mediaType;
+                }
+            }
+        }
+        return STREAM_MEDIA_TYPES.get(0);
+    }
+
+    private StreamingResponseBody streamProtobuf() {
+        return outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream);
+            employeeService.streamAllEmployees(employee -> {
+                try {
+                    EmployeeProtobuf.writeDelimited(employee, out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+    }
+
+    private StreamingResponseBody streamRows(ObjectWriter writer, boolean newlineDelimited) {
+        return outputStream -> {
+            JsonGenerator generator = writer.getFactory().createGenerator(outputStream);
+            //binary generators have no separator between root values, and do not support setting one
+            if (newlineDelimited) {
+                generator.setRootValueSeparator(null);
+            }
+            employeeService.streamAllEmployees(employee -> {
+                try {
+                    writer.writeValue(generator, employee);
+                    if (newlineDelimited) {
+                        generator.writeRaw('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.flush();
+        };
+    }
+
+    //lookup by email: GET /api/employees?email=john@gmail.com
+    @GetMapping(params = {"email", "!ids"})
+    public ResponseEntity<Employee> getEmployeeByEmail(@RequestParam("email") String email) {
+        return employeeService.getEmployeeByEmail(email)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    //ranked prefix search over first name, last name and email: GET /api/employees/search?q=jo sm&page=0&size=20
+    @GetMapping("search")
+    public EmployeeSearchResult searchEmployees(@RequestParam("q") String query,
+                                                @RequestParam(value = "page", defaultValue = "0") int page,
+                                                @RequestParam(value = "size", defaultValue = "20") int size) {
+        return employeeService.searchEmployees(query, Math.max(0, page), Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
     }
 
     @GetMapping("{id}")
-    public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") long employeeId) {
+    public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") long employeeId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         //ResponseEntity represents the whole HTTP response: status code, headers, and body.
         // As a result, we can use it to fully configure the HTTP response.
         return employeeService.getEmployeeById(employeeId)
-                .map(ResponseEntity::ok) //if id is valid return Ok status code
+                .map(employee -> {
+                    String eTag = eTag(employee);
+                    //the client already has this version: 304 without a body, nothing is serialized
+                    if (ifNoneMatch(ifNoneMatch, eTag)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).<Employee>build();
+                    }
+                    return ResponseEntity.ok().eTag(eTag).body(employee); //if id is valid return Ok status code
+                })
                 .orElseGet(() -> ResponseEntity.notFound().build()); //if id is not valid return 404 notFound status
     }
 
+    //with If-Match the row is only updated if it still has the version of the ETag, otherwise 412
     @PutMapping("{id}")
-    public ResponseEntity<Employee> updateEmployee(@PathVariable("id") long employeeId, @RequestBody Employee employee) {
-        return employeeService.getEmployeeById(employeeId).map(savedEmployee -> {
-            savedEmployee.setFirstName(employee.getFirstName());
-            savedEmployee.setLastName(employee.getLastName());
-            savedEmployee.setEmail(employee.getEmail());
-
-            Employee updatedEmployee = employeeService.updateEmployee(savedEmployee);
-            return new ResponseEntity<>(updatedEmployee, HttpStatus.OK);
-        })
+    public ResponseEntity<Employee> updateEmployee(@PathVariable("id") long employeeId, @RequestBody Employee employee,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            //one UPDATE statement, an empty result means no employee has this id
+            return employeeService.updateEmployee(employeeId, employee)
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        }
+        return employeeService.updateEmployee(employeeId, employee, parseVersion(ifMatch))
+                .map(updatedEmployee -> ResponseEntity.ok().eTag(eTag(updatedEmployee)).body(updatedEmployee))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    //strong ETag of one employee, derived from its version column
+    static String eTag(Employee employee) {
+        return "\"" + employee.getVersion() + "\"";
+    }
+
+    //strong ETag of the whole list, derived from the table watermark
+    static String eTag(EmployeesVersion employeesVersion) {
+        return "\"" + employeesVersion.getRowCount() + "-" + employeesVersion.getMaxId()
+                + "-" + employeesVersion.getVersionSum() + "\"";
+    }
+
+    //If-None-Match uses the weak comparison: W/ prefixes are ignored and * matches any representation
+    private static boolean ifNoneMatch(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals("*") || candidate.equals(eTag) || candidate.equals("W/" + eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //If-Match uses the strong comparison, so only a single strong ETag of a version can match
+    private static long parseVersion(String ifMatch) {
+        String eTag = ifMatch.trim();
+        if (eTag.length() > 2 && eTag.startsWith("\"") && eTag.endsWith("\"")) {
+            try {
+                return Long.parseLong(eTag.substring(1, eTag.length() - 1));
+            } catch (NumberFormatException e) {
+                //fall through, this is not one of our ETags
+            }
+        }
+        throw new EmployeeVersionConflictException("If-Match does not match any version of the employee: " + ifMatch);
+    }
+
     @DeleteMapping("{id}")
     public ResponseEntity<String> deleteEmployee(@PathVariable("id") long id) {
-        employeeService.deleteEmployee(id);
+        if (!employeeService.deleteEmployee(id)) {
+            return ResponseEntity.notFound().build();
+        }
         return new ResponseEntity<String>("Employee deleted successfully!.", HttpStatus.OK);
     }
 }
@@ -0,0 +1,50 @@
+package com.practice.springboot.controller;
+
+import com.practice.springboot.model.Employee;
+import com.practice.springboot.model.IngestionStatus;
+import com.practice.springboot.service.EmployeeIngestionService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.net.URI;
+
+/*Asynchronous creation of employees.
+* POST only validates and queues the employee and answers 202 Accepted with a tracking id,
+* the client polls GET /api/employees/ingest/{id} until the employee is CREATED or REJECTED.
+* A full queue answers 429 Too Many Requests.*/
+
+@RestController
+@RequestMapping("/api/employees/ingest")
+public class EmployeeIngestionController {
+
+    private EmployeeIngestionService employeeIngestionService;
+
+    public EmployeeIngestionController(EmployeeIngestionService employeeIngestionService) {
+        this.employeeIngestionService = employeeIngestionService;
+    }
+
+    @PostMapping
+    public ResponseEntity<IngestionStatus> ingestEmployee(@RequestBody Employee employee) {
+        //checked here, an invalid employee should fail the request and not only later in the pipeline
+        if (isBlank(employee.getFirstName()) || isBlank(employee.getLastName()) || isBlank(employee.getEmail())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "firstName, lastName and email are required");
+        }
+        IngestionStatus status = employeeIngestionService.submit(employee);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/employees/ingest/" + status.getId()))
+                .body(status);
+    }
+
+    @GetMapping("{id}")
+    public ResponseEntity<IngestionStatus> getIngestionStatus(@PathVariable("id") String id) {
+        return employeeIngestionService.getStatus(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build()); //unknown id or the outcome already expired
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,59 @@
+package com.practice.springboot.controller;
+
+import com.practice.springboot.model.EmployeeImportResult;
+import com.practice.springboot.service.EmployeeTransferService;
+import com.practice.springboot.transfer.TransferFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+
+/*Moving the employees table between environments:
+*   GET  /api/employees/export?format=csv|binary
+*   POST /api/employees/import?format=csv|binary with the export as request body
+* Both directions stream, the table is never held in memory. The export runs as an async request without a time
+* limit (spring.mvc.async.request-timeout), however long the table takes.*/
+
+@RestController
+@RequestMapping("/api/employees")
+public class EmployeeTransferController {
+
+    private EmployeeTransferService employeeTransferService;
+
+    public EmployeeTransferController(EmployeeTransferService employeeTransferService) {
+        this.employeeTransferService = employeeTransferService;
+    }
+
+    @GetMapping("export")
+    public ResponseEntity<StreamingResponseBody> exportEmployees(
+            @RequestParam(value = "format", defaultValue = "csv") String format) {
+        TransferFormat transferFormat = transferFormat(format);
+        StreamingResponseBody body = outputStream ->
+                employeeTransferService.exportEmployees(transferFormat, Channels.newChannel(outputStream));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(transferFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=employees." + transferFormat.getFileExtension())
+                .body(body);
+    }
+
+    @PostMapping("import")
+    public EmployeeImportResult importEmployees(@RequestParam(value = "format", defaultValue = "csv") String format,
+                                                InputStream body) throws IOException {
+        return employeeTransferService.importEmployees(transferFormat(format), Channels.newChannel(body));
+    }
+
+    private static TransferFormat transferFormat(String format) {
+        try {
+            return TransferFormat.of(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown export format: " + format);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.practice.springboot.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/*Maps the expected exceptions of the employee API straight to a response.
+* @ResponseStatus on the exception would go through response.sendError and the /error dispatch instead,
+* which builds the whole error attribute map for every rejected request.*/
+
+@RestControllerAdvice
+public class EmployeeExceptionHandler {
+
+    @ExceptionHandler(EmployeeIdNotFoundException.class)
+    public ResponseEntity<String> handleEmployeeIdNotFound(EmployeeIdNotFoundException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
+    }
+
+    //duplicate email
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<String> handleDuplicateEmail(ResourceNotFoundException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    //stale If-Match version
+    @ExceptionHandler(EmployeeVersionConflictException.class)
+    public ResponseEntity<String> handleVersionConflict(EmployeeVersionConflictException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler(IngestionQueueFullException.class)
+    public ResponseEntity<String> handleIngestionQueueFull(IngestionQueueFullException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    //an import body that is not a valid export
+    @ExceptionHandler(MalformedEmployeeDataException.class)
+    public ResponseEntity<String> handleMalformedEmployeeData(MalformedEmployeeDataException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+}
@@ -1,11 +1,14 @@
 package com.practice.springboot.exception;
 
+//no employee has the id. Mapped to 404 by EmployeeExceptionHandler.
+//The service reports a missing id with an empty result, this exception is left for callers that want to throw.
+//No stack trace: the message already says everything and filling in the trace is the expensive part of an exception
 public class EmployeeIdNotFoundException extends RuntimeException{
     public EmployeeIdNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
     public EmployeeIdNotFoundException(String message, Throwable cause) {
-        super(message, cause);
+        super(message, cause, false, false);
     }
 }
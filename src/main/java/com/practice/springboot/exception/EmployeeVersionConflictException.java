@@ -0,0 +1,13 @@
+package com.practice.springboot.exception;
+
+//the employee was changed since the client read it (If-Match did not match). Mapped to 412 by EmployeeExceptionHandler.
+//No stack trace: a lost race between two clients is not a bug, there is nothing to trace back
+public class EmployeeVersionConflictException extends RuntimeException{
+    public EmployeeVersionConflictException(String message) {
+        super(message, null, false, false);
+    }
+
+    public EmployeeVersionConflictException(String message, Throwable cause) {
+        super(message, cause, false, false);
+    }
+}
@@ -0,0 +1,13 @@
+package com.practice.springboot.exception;
+
+//the ingestion queue has no free slot, the client should retry later. Mapped to 429 by EmployeeExceptionHandler.
+//No stack trace: it is thrown for every rejected request while the queue is full, and filling in the trace is the expensive part
+public class IngestionQueueFullException extends RuntimeException{
+    public IngestionQueueFullException(String message) {
+        super(message, null, false, false);
+    }
+
+    public IngestionQueueFullException(String message, Throwable cause) {
+        super(message, cause, false, false);
+    }
+}
@@ -0,0 +1,15 @@
+package com.practice.springboot.exception;
+
+//the body of an import is not a valid export: truncated, wrong format or a field longer than any column.
+//Mapped to 400 by EmployeeExceptionHandler, the IOExceptions of the channel itself stay server errors.
+//No stack trace: the message names what is wrong with the body, where the reader noticed it does not matter
+public class MalformedEmployeeDataException extends RuntimeException{
+
+    public MalformedEmployeeDataException(String message) {
+        super(message, null, false, false);
+    }
+
+    public MalformedEmployeeDataException(String message, Throwable cause) {
+        super(message, cause, false, false);
+    }
+}
@@ -1,12 +1,14 @@
 package com.practice.springboot.exception;
 
+//thrown when an employee with the same email already exists, mapped to 409 Conflict by EmployeeExceptionHandler.
+//No stack trace: a duplicate email is a client error, the trace would point at the same save call every time
 public class ResourceNotFoundException extends RuntimeException{
 
     public ResourceNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
     public ResourceNotFoundException(String message, Throwable cause) {
-        super(message, cause);
+        super(message, cause, false, false);
     }
 }
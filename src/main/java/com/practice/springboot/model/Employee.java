@@ -1,6 +1,9 @@
 package com.practice.springboot.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 
@@ -11,11 +14,26 @@ import javax.persistence.*;
 @Builder
 
 @Entity
-@Table(name = "employees")
+@Table(name = "employees",
+        //email lookups and the duplicate check use the unique index, the name queries use the composite one
+        uniqueConstraints = @UniqueConstraint(name = Employee.EMAIL_UNIQUE_CONSTRAINT, columnNames = "email"),
+        indexes = @Index(name = "idx_employees_last_name_first_name", columnList = "last_name, first_name"))
+//second-level cache: loads by id are served from memory across transactions and sessions.
+//READ_WRITE locks the entry while a transaction changes the row, so no reader gets a stale copy
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Employee.CACHE_REGION)
 public class Employee {
 
+    public static final String EMAIL_UNIQUE_CONSTRAINT = "uk_employees_email";
+
+    //name of the second-level cache region, its size and expiry are set in application.conf
+    public static final String CACHE_REGION = "employees";
+
+    //pooled sequence ids are allocated 50 at a time and let Hibernate batch inserts,
+    //IDENTITY would force one INSERT round-trip per row to read back the generated id
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employees_seq")
+    @SequenceGenerator(name = "employees_seq", sequenceName = "employees_seq", allocationSize = 50)
     private long id;
 
     @Column(name = "first_name", nullable = false)
@@ -26,4 +44,9 @@ public class Employee {
 
     @Column(nullable = false)
     private String email;
+
+    //optimistic locking, incremented on every update. Clients see it as the ETag header instead of a JSON field
+    @Version
+    @JsonIgnore
+    private long version;
 }
@@ -0,0 +1,18 @@
+package com.practice.springboot.model;
+
+import lombok.*;
+
+import java.util.List;
+
+//outcome of a bulk create request: the saved employees and the rows that were rejected
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+@Builder
+public class EmployeeBatchResult {
+
+    private List<Employee> saved;
+
+    private List<RejectedEmployee> rejected;
+}
@@ -0,0 +1,30 @@
+package com.practice.springboot.model;
+
+import lombok.*;
+
+//one committed change of the employees table, numbered in commit order by the change feed
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+@Builder
+public class EmployeeChangeEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        //the requested sequence is no longer buffered: reload GET /api/employees and subscribe again with since=sequence
+        RESYNC
+    }
+
+    //increases by one with every change, a subscriber resumes after the last sequence it has seen
+    private long sequence;
+
+    private Type type;
+
+    private long employeeId;
+
+    //the employee after the change, not set for DELETED and RESYNC
+    private Employee employee;
+}
@@ -0,0 +1,21 @@
+package com.practice.springboot.model;
+
+import lombok.*;
+
+//summary of a bulk import
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+@Builder
+public class EmployeeImportResult {
+
+    private long imported;
+
+    //rows whose email already existed
+    private long rejected;
+
+    private long millis;
+
+    private long rowsPerSecond;
+}
@@ -0,0 +1,18 @@
+package com.practice.springboot.model;
+
+import lombok.*;
+
+import java.util.List;
+
+//result of fetching many employees by id: the ones found, in the requested order, and the ids that do not exist
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+@Builder
+public class EmployeeMultiGetResult {
+
+    private List<Employee> employees;
+
+    private List<Long> missing;
+}
@@ -0,0 +1,23 @@
+package com.practice.springboot.model;
+
+import lombok.*;
+
+import java.util.List;
+
+//one page of ranked search results
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+@Builder
+public class EmployeeSearchResult {
+
+    private List<Employee> employees;
+
+    //number of employees matching the query over all pages
+    private int total;
+
+    private int page;
+
+    private int size;
+}
@@ -0,0 +1,21 @@
+package com.practice.springboot.model;
+
+import lombok.*;
+
+/*Cheap watermark of the whole employees table, computed without loading any row.
+* Inserts raise the row count and the highest id (ids come from a sequence), deletes lower the row count
+* and updates raise the sum of the row versions, so any change to the table changes the watermark.*/
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+@Builder
+public class EmployeesVersion {
+
+    private Long rowCount;
+
+    private Long maxId;
+
+    private Long versionSum;
+}
@@ -0,0 +1,32 @@
+package com.practice.springboot.model;
+
+import lombok.*;
+
+//outcome of one employee submitted to the ingestion pipeline, polled by the client with the tracking id
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+@Builder
+public class IngestionStatus {
+
+    public enum State {
+        //waiting in the queue or part of the batch being written
+        PENDING,
+        CREATED,
+        //the email is already taken
+        REJECTED,
+        //the batch could not be written, the employee was not created
+        FAILED
+    }
+
+    private String id;
+
+    private State state;
+
+    //the created employee, only set when state is CREATED
+    private Employee employee;
+
+    //why the employee was not created, only set when state is REJECTED or FAILED
+    private String reason;
+}
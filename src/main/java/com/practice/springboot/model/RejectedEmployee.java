@@ -0,0 +1,19 @@
+package com.practice.springboot.model;
+
+import lombok.*;
+
+//a row of a bulk create request that was not saved
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+@Builder
+public class RejectedEmployee {
+
+    //position of the row in the request body
+    private int index;
+
+    private String email;
+
+    private String reason;
+}
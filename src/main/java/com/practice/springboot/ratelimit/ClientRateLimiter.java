@@ -0,0 +1,66 @@
+package com.practice.springboot.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/*Token bucket per client, implemented as the generic cell rate algorithm (GCRA).
+* The whole bucket of a client is one long, the theoretical arrival time of its next request: every request
+* moves it on by one emission interval, and a request is allowed while it is at most burst intervals ahead of now.
+* That is a single compare-and-set per request, without a lock and without a refill thread.
+* The buckets live in a bounded Caffeine cache, whose hash table is striped internally, and idle clients expire.*/
+
+public class ClientRateLimiter {
+
+    private final long emissionIntervalNanos;
+
+    //how far the theoretical arrival time may run ahead of now, (burst - 1) intervals
+    private final long burstToleranceNanos;
+
+    private final Cache<String, AtomicLong> buckets;
+
+    private final LongSupplier nanoClock;
+
+    public ClientRateLimiter(double requestsPerSecond, int burst, long maxClients) {
+        this(requestsPerSecond, burst, maxClients, System::nanoTime);
+    }
+
+    ClientRateLimiter(double requestsPerSecond, int burst, long maxClients, LongSupplier nanoClock) {
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * (Math.max(1, burst) - 1);
+        this.nanoClock = nanoClock;
+        //a client that has been idle for a full burst has a full bucket again, its entry can be dropped then
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofNanos(Math.max(burstToleranceNanos + emissionIntervalNanos,
+                        TimeUnit.SECONDS.toNanos(1))))
+                .build();
+    }
+
+    //0 if the request is allowed, otherwise the nanoseconds until the client may send the next one
+    public long tryAcquire(String clientKey) {
+        AtomicLong theoreticalArrival = buckets.get(clientKey, key -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long current = theoreticalArrival.get();
+            //an idle client starts from now, it cannot save up more than a full bucket
+            long start = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+            long next = start + emissionIntervalNanos;
+            long aheadBy = next - now - emissionIntervalNanos;
+            if (aheadBy > burstToleranceNanos) {
+                return aheadBy - burstToleranceNanos;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public long getClientCount() {
+        return buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,106 @@
+package com.practice.springboot.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*Adaptive limit of the requests one endpoint may have in flight, in the style of the gradient limiter.
+* A long-term average of the latency stands for the latency without queueing. When recent requests get
+* slower than that, requests are waiting somewhere (JDBC pool, H2 locks) and the limit shrinks by the ratio
+* of the two, when they are as fast the limit grows by a small headroom. Requests over the limit are shed
+* right away instead of joining the queue that makes everyone slow.*/
+
+public class GradientConcurrencyLimiter {
+
+    //the limit never shrinks by more than half in one step
+    private static final double MIN_GRADIENT = 0.5;
+
+    //latency may rise by this factor over the long-term average before the limit shrinks
+    private static final double RTT_TOLERANCE = 1.5;
+
+    //weight of a new estimate, so a single slow request does not halve the limit
+    private static final double SMOOTHING = 0.2;
+
+    //samples averaged into the short-term latency before the limit is updated
+    private static final int SAMPLES_PER_UPDATE = 10;
+
+    //the long-term average follows the latency over roughly this many samples
+    private static final int LONG_WINDOW = 600;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile int limit;
+
+    //guarded by this
+    private double estimatedLimit;
+    private double longRttNanos;
+    private long shortRttSumNanos;
+    private int shortRttSamples;
+    private int maxInFlightSinceUpdate;
+
+    public GradientConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+    }
+
+    //false if the endpoint is at its limit, otherwise the caller has to call release once the request is done
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    //rttNanos is the latency of the request, negative for requests that must not be sampled (streams, failures)
+    public void release(long rttNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        if (rttNanos >= 0) {
+            sample(rttNanos, inFlightBefore);
+        }
+    }
+
+    private synchronized void sample(long rttNanos, int inFlightAtCompletion) {
+        maxInFlightSinceUpdate = Math.max(maxInFlightSinceUpdate, inFlightAtCompletion);
+        shortRttSumNanos += rttNanos;
+        if (++shortRttSamples < SAMPLES_PER_UPDATE) {
+            return;
+        }
+        double shortRtt = (double) shortRttSumNanos / shortRttSamples;
+        longRttNanos = longRttNanos == 0 ? shortRtt
+                : longRttNanos + (shortRtt - longRttNanos) * SAMPLES_PER_UPDATE / LONG_WINDOW;
+        //after a long overload the average is inflated, let it come down quickly once latency recovers
+        if (longRttNanos / shortRtt > 2) {
+            longRttNanos = shortRtt;
+        }
+
+        //far below the limit the latency says nothing about the limit, the endpoint is just not busy
+        if (maxInFlightSinceUpdate >= estimatedLimit / 2) {
+            double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, RTT_TOLERANCE * longRttNanos / shortRtt));
+            double queueSize = Math.sqrt(estimatedLimit);
+            double newLimit = estimatedLimit * gradient + queueSize;
+            estimatedLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+            estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit));
+            limit = (int) estimatedLimit;
+        }
+        shortRttSumNanos = 0;
+        shortRttSamples = 0;
+        maxInFlightSinceUpdate = 0;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
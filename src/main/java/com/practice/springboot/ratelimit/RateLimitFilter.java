@@ -0,0 +1,207 @@
+package com.practice.springboot.ratelimit;
+
+import com.practice.springboot.config.EmployeeProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.security.Principal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/*Sheds load in front of the employee API, before a request reaches the controller or takes a connection.
+* First the token bucket of the client: a client over its rate gets 429 with Retry-After.
+* Then the concurrency limit of the endpoint: an endpoint at its adaptive limit answers 503.
+* An async request (CompletableFuture) holds its slot until its result is written.
+* Streamed responses (SSE, NDJSON, export) release their slot when the handler returns and are not sampled,
+* their duration is not a latency.*/
+
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    //numeric path segments are ids, all ids share the limiter of the endpoint
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    //limiters are created per method and path, unknown paths beyond this share one limiter
+    private static final int MAX_ENDPOINTS = 64;
+
+    private static final String OTHER_ENDPOINT = "other";
+
+    private final ClientRateLimiter clientRateLimiter;
+
+    private final EmployeeProperties.RateLimit config;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, EndpointLimiter> endpoints = new ConcurrentHashMap<>();
+
+    private final Counter rateRejections;
+
+    public RateLimitFilter(EmployeeProperties.RateLimit config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+        this.clientRateLimiter = new ClientRateLimiter(config.getRequestsPerSecond(), config.getBurst(),
+                config.getMaxClients());
+        this.rateRejections = Counter.builder("employee.ratelimit.rejected")
+                .description("Requests rejected before reaching the controller")
+                .tag("reason", "rate")
+                .tag("endpoint", "any")
+                .register(meterRegistry);
+        Gauge.builder("employee.ratelimit.clients", clientRateLimiter, ClientRateLimiter::getClientCount)
+                .description("Clients with a token bucket")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long waitNanos = clientRateLimiter.tryAcquire(clientKey(request));
+        if (waitNanos > 0) {
+            rateRejections.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos))));
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, "Too many requests from this client");
+            return;
+        }
+
+        EndpointLimiter endpoint = endpointLimiter(request);
+        if (!endpoint.limiter().tryAcquire()) {
+            endpoint.rejections().increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, "Endpoint is at its concurrency limit");
+            return;
+        }
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            if (completed && request.isAsyncStarted() && !isStream(response)) {
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(endpoint.limiter(), start));
+            } else {
+                boolean sampled = completed && !request.isAsyncStarted() && response.getStatus() < 500;
+                endpoint.limiter().release(sampled ? System.nanoTime() - start : -1);
+            }
+        }
+    }
+
+    //a stream has written its headers by the time its handler returns, an async result (CompletableFuture) has not
+    private static boolean isStream(HttpServletResponse response) {
+        return response.getContentType() != null;
+    }
+
+    //holds the slot of an async request until its result is written, the way a synchronous request holds it
+    private static final class ReleaseOnCompletion implements AsyncListener {
+
+        private final GradientConcurrencyLimiter limiter;
+
+        private final long start;
+
+        //onError and onTimeout are followed by onComplete, the slot is released once
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private ReleaseOnCompletion(GradientConcurrencyLimiter limiter, long start) {
+            this.limiter = limiter;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            HttpServletResponse response = (HttpServletResponse) event.getSuppliedResponse();
+            release(response != null && response.getStatus() < 500 ? System.nanoTime() - start : -1);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release(-1);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release(-1);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            //starting async again drops the listeners, the slot is released now rather than never
+            release(-1);
+        }
+
+        private void release(long rttNanos) {
+            if (released.compareAndSet(false, true)) {
+                limiter.release(rttNanos);
+            }
+        }
+    }
+
+    //written directly, sendError would dispatch to /error and build the error page for every shed request
+    private static void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write(message);
+    }
+
+    //an authenticated client by its name, otherwise by the trusted header when one is configured, otherwise by its address.
+    //The keys are prefixed so a header value cannot share the bucket of a user or an address
+    private String clientKey(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "user:" + principal.getName();
+        }
+        String header = config.getClientHeader();
+        if (header != null && !header.isEmpty()) {
+            String client = request.getHeader(header);
+            if (client != null && !client.isBlank()) {
+                return "client:" + client;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private record EndpointLimiter(GradientConcurrencyLimiter limiter, Counter rejections) {
+    }
+
+    private EndpointLimiter endpointLimiter(HttpServletRequest request) {
+        String endpoint = request.getMethod() + " "
+                + ID_SEGMENT.matcher(request.getRequestURI().substring(request.getContextPath().length())).replaceAll("/{id}");
+        EndpointLimiter limiter = endpoints.get(endpoint);
+        if (limiter != null) {
+            return limiter;
+        }
+        if (endpoints.size() >= MAX_ENDPOINTS) {
+            endpoint = OTHER_ENDPOINT;
+        }
+        return endpoints.computeIfAbsent(endpoint, this::newEndpointLimiter);
+    }
+
+    private EndpointLimiter newEndpointLimiter(String endpoint) {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(config.getInitialLimit(),
+                config.getMinLimit(), config.getMaxLimit());
+        Gauge.builder("employee.ratelimit.limit", limiter, GradientConcurrencyLimiter::getLimit)
+                .description("Current concurrency limit of the endpoint")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        Gauge.builder("employee.ratelimit.inflight", limiter, GradientConcurrencyLimiter::getInFlight)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        Counter rejections = Counter.builder("employee.ratelimit.rejected")
+                .description("Requests rejected before reaching the controller")
+                .tag("reason", "concurrency")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        return new EndpointLimiter(limiter, rejections);
+    }
+}
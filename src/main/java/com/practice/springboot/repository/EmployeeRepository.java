@@ -1,37 +1,105 @@
 package com.practice.springboot.repository;
 
 import com.practice.springboot.model.Employee;
+import com.practice.springboot.model.EmployeesVersion;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 /*There is no need to annotate this interface with @Repository.
 * Our interface extends JpaRepository and,
 * There is a class called "SimpleJpaRepository" which implements the JpaRepository interface.
 * That class is internally annotated with @Repository.*/
 
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, EmployeeRepositoryCustom {
     //visit this documentation for creating JPA queries using method names:
     //https://docs.spring.io/spring-data/jpa/docs/current/reference/html/#jpa.query-methods
+    //the lookups are read-only transactions, so they are served by the replica when one is configured,
+    //unless the caller fills a cache with the result and reads through ReplicaRoutingDataSource.readPrimary.
+    //Cacheable queries keep the matching ids in the query cache and load the employees from the second-level cache,
+    //any write to the employees table invalidates the cached results
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<Employee> findByEmail(String email);
 
     //define custom query using JPQL with index params
     @Query("select e from Employee e where e.firstName  = ?1 and e.lastName = ?2")
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Employee findByJPQLIndexParams(String firstName, String lastName);
 
 
     //define custom query using JPQL with named params
     @Query("select e from Employee e where e.firstName =:firstName and e.lastName =:lastName")
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Employee findByJPQLNamedParams(@Param("firstName") String firstName,@Param("lastName") String lastName);
 
     //define custom query using Native SQL with index params
     @Query(value = "select * from employees e where e.first_name = ?1 and e.last_name = ?2", nativeQuery = true)
+    @Transactional(readOnly = true)
     Employee findByNativeSQLIndexParams(String firstName, String lastName);
 
 
     //define custom query using Native SQL with named params
     @Query(value = "select * from employees e where e.first_name =:firstName and e.last_name =:lastName", nativeQuery = true)
+    @Transactional(readOnly = true)
     Employee findByNativeSQLNamedParams(@Param("firstName") String firstName, @Param("lastName") String lastName);
+
+    //set based uniqueness check: returns which of the given emails are already taken, in one query
+    @Query("select e.email from Employee e where e.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    //keyset pagination: seek past the last id the client has seen instead of using an offset,
+    //so every page is a primary key range scan no matter how deep the client pages
+    List<Employee> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+    //stream the whole table row by row. The fetch size stops the JDBC driver from buffering every row
+    //and the read-only hint stops Hibernate from keeping dirty-checking snapshots.
+    //Must be called inside a transaction and the returned Stream must be closed.
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select e from Employee e order by e.id")
+    Stream<Employee> streamAll();
+
+    //update in a single statement without loading the entity first, returns the number of updated rows (0 or 1)
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Employee e set e.firstName = :firstName, e.lastName = :lastName, e.email = :email, " +
+            "e.version = e.version + 1 where e.id = :id")
+    int updateById(@Param("id") long id, @Param("firstName") String firstName,
+                   @Param("lastName") String lastName, @Param("email") String email);
+
+    //same as updateById, but only updates the row if it still has the version the client read
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Employee e set e.firstName = :firstName, e.lastName = :lastName, e.email = :email, " +
+            "e.version = e.version + 1 where e.id = :id and e.version = :version")
+    int updateByIdAndVersion(@Param("id") long id, @Param("version") long version, @Param("firstName") String firstName,
+                             @Param("lastName") String lastName, @Param("email") String email);
+
+    //delete in a single statement, unlike deleteById which loads the entity before removing it.
+    //Returns the number of deleted rows (0 or 1)
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Employee e where e.id = :id")
+    int deleteEmployeeById(@Param("id") long id);
+
+    //table level watermark for conditional GETs of the whole list, see EmployeesVersion
+    @Query("select new com.practice.springboot.model.EmployeesVersion(count(e), coalesce(max(e.id), 0), " +
+            "coalesce(sum(e.version), 0)) from Employee e")
+    EmployeesVersion findEmployeesVersion();
 }
@@ -0,0 +1,20 @@
+package com.practice.springboot.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*Custom repository methods that can not be expressed as a query method or a @Query.
+* Spring Data picks up EmployeeRepositoryCustomImpl as their implementation
+* because EmployeeRepository extends this interface.*/
+
+public interface EmployeeRepositoryCustom {
+
+    //Employee attributes that can be selected with findFields
+    Set<String> FIELDS = Set.of("id", "firstName", "lastName", "email");
+
+    //selects only the given Employee attributes, ordered by id and starting after afterId.
+    //No entity is loaded, every row is returned as a map from attribute name to value.
+    //A limit of 0 returns every remaining row.
+    List<Map<String, Object>> findFields(List<String> fields, long afterId, int limit);
+}
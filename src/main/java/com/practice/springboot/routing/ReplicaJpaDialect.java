@@ -0,0 +1,49 @@
+package com.practice.springboot.routing;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import java.sql.SQLException;
+
+/*Keeps rows read from the replica out of the Hibernate second-level and query caches.
+* A read-only transaction that is routed to the replica runs with CacheMode.GET: it still reads the caches,
+* but whatever it loads is not put, so a row the replica has not caught up on is not served for the cache expiry.
+* The session is put back to its previous cache mode when the transaction ends (open session in view).*/
+
+public class ReplicaJpaDialect extends HibernateJpaDialect {
+
+    private final ReplicaStickiness stickiness;
+
+    public ReplicaJpaDialect(ReplicaStickiness stickiness) {
+        this.stickiness = stickiness;
+    }
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        if (!definition.isReadOnly() || !ReplicaRoutingDataSource.readsReplica(stickiness)) {
+            return transactionData;
+        }
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode previousCacheMode = session.getCacheMode();
+        session.setCacheMode(CacheMode.GET);
+        return new ReplicaTransactionData(transactionData, session, previousCacheMode);
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof ReplicaTransactionData replicaData) {
+            replicaData.session().setCacheMode(replicaData.previousCacheMode());
+            transactionData = replicaData.transactionData();
+        }
+        super.cleanupTransaction(transactionData);
+    }
+
+    private record ReplicaTransactionData(Object transactionData, Session session, CacheMode previousCacheMode) {
+    }
+}
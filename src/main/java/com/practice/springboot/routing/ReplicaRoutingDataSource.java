@@ -0,0 +1,73 @@
+package com.practice.springboot.routing;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/*Sends read-only transactions to the replica and everything else to the primary.
+* The decision is made when a connection is taken, so this data source has to be wrapped in a
+* LazyConnectionDataSourceProxy: the transaction manager takes the connection before it marks the
+* transaction read-only, the lazy proxy only takes the real connection at the first statement.
+* Reads whose rows end up in a cache go through readPrimary: a cached row outlives the replica lag.*/
+
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    //set while readPrimary runs on this thread
+    private static final ThreadLocal<Boolean> primaryReads = new ThreadLocal<>();
+
+    private final ReplicaStickiness stickiness;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaStickiness stickiness) {
+        this.stickiness = stickiness;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    //runs the read with every connection it takes from the primary, read-only or not.
+    //Does nothing without a replica, and cannot move a transaction that already has its connection
+    public static <T> T readPrimary(Supplier<T> read) {
+        Boolean outer = primaryReads.get();
+        primaryReads.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            if (outer == null) {
+                primaryReads.remove();
+            }
+        }
+    }
+
+    //true if a read-only transaction starting now would read from the replica
+    static boolean readsReplica(ReplicaStickiness stickiness) {
+        return primaryReads.get() == null && !stickiness.mustReadPrimary();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && readsReplica(stickiness)) {
+            return Route.REPLICA;
+        }
+        //a committed write makes the following reads of the same client sticky to the primary
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    stickiness.markWrite();
+                }
+            });
+        }
+        return Route.PRIMARY;
+    }
+}
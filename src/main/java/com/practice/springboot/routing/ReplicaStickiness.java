@@ -0,0 +1,78 @@
+package com.practice.springboot.routing;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+
+/*Read-your-writes for a replica that lags behind the primary.
+* After a client wrote, its reads go to the primary until the replica can be expected to have caught up (max lag).
+* The time of the last write is kept on the request for the rest of the same request,
+* and in a cookie so the following requests of the same client see it too.
+* Calls outside of an HTTP request (async pools, ingestion, export) have no stickiness.*/
+
+public class ReplicaStickiness {
+
+    static final String COOKIE = "employee-last-write";
+
+    private static final String ATTRIBUTE = ReplicaStickiness.class.getName() + ".lastWrite";
+
+    private final Duration maxLag;
+
+    public ReplicaStickiness(Duration maxLag) {
+        this.maxLag = maxLag;
+    }
+
+    //true if the current client wrote less than max lag ago
+    public boolean mustReadPrimary() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return false;
+        }
+        Long lastWrite = (Long) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (lastWrite == null && attributes instanceof ServletRequestAttributes servletAttributes) {
+            lastWrite = lastWriteCookie(servletAttributes.getRequest());
+        }
+        return lastWrite != null && System.currentTimeMillis() - lastWrite < maxLag.toMillis();
+    }
+
+    public void markWrite() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        attributes.setAttribute(ATTRIBUTE, now, RequestAttributes.SCOPE_REQUEST);
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpServletResponse response = servletAttributes.getResponse();
+            if (response != null && !response.isCommitted()) {
+                Cookie cookie = new Cookie(COOKIE, Long.toString(now));
+                cookie.setPath("/");
+                cookie.setHttpOnly(true);
+                //the browser drops the cookie once the replica should have the write
+                cookie.setMaxAge((int) Math.max(1, (maxLag.toMillis() + 999) / 1000));
+                response.addCookie(cookie);
+            }
+        }
+    }
+
+    private static Long lastWriteCookie(HttpServletRequest request) {
+        if (request.getCookies() == null) {
+            return null;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+}
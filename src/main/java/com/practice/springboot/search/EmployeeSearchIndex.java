@@ -0,0 +1,185 @@
+package com.practice.springboot.search;
+
+import com.practice.springboot.model.Employee;
+import com.practice.springboot.model.EmployeeSearchResult;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/*In-memory inverted index over the first name, last name and email of every employee.
+* Terms are kept sorted, so all terms starting with a prefix are one range of the map
+* and type-ahead search never touches the database.
+* Reads are lock-free, writes are serialized so a document and its postings always change together.*/
+
+@Component
+public class EmployeeSearchIndex {
+
+    //a query term equal to an indexed term scores higher than a term it is only a prefix of
+    private static final int EXACT_MATCH_SCORE = 2;
+    private static final int PREFIX_MATCH_SCORE = 1;
+
+    //term -> ids of the employees that contain it
+    private final ConcurrentSkipListMap<String, Postings> postings = new ConcurrentSkipListMap<>();
+
+    //id -> indexed copy of the employee, returned as search result
+    private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+
+    //the terms are an array, a hash set for a handful of words costs more than the employee itself
+    private record Document(Employee employee, String[] terms) {
+    }
+
+    public synchronized void index(Employee employee) {
+        remove(employee.getId());
+        Employee copy = Employee.builder()
+                .id(employee.getId())
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email(employee.getEmail())
+                .version(employee.getVersion())
+                .build();
+        String[] terms = terms(copy);
+        documents.put(copy.getId(), new Document(copy, terms));
+        for (String term : terms) {
+            Postings ids = postings.get(term);
+            if (ids == null) {
+                postings.put(term, new Postings(copy.getId()));
+            } else {
+                ids.add(copy.getId());
+            }
+        }
+    }
+
+    //all employees of one transaction, indexed when it commits so a rolled back row is never found.
+    //Registered before the change feed publishes them, a subscriber that searches finds the new rows
+    public void indexAll(List<Employee> employees) {
+        if (employees.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    employees.forEach(EmployeeSearchIndex.this::index);
+                }
+            });
+        } else {
+            employees.forEach(this::index);
+        }
+    }
+
+    public synchronized void remove(long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms()) {
+            Postings ids = postings.get(term);
+            if (ids != null && ids.remove(id)) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        documents.clear();
+        postings.clear();
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    //every word of the query has to be a prefix of a term of the employee.
+    //Results are ranked by score, then by id, and returned one page at a time
+    public EmployeeSearchResult search(String query, int page, int size) {
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty()) {
+            return new EmployeeSearchResult(List.of(), 0, page, size);
+        }
+
+        //intersect the candidates of every query term, starting with the smallest set
+        List<Set<Long>> candidatesPerTerm = new ArrayList<>();
+        for (String queryTerm : queryTerms) {
+            Set<Long> candidates = candidates(queryTerm);
+            if (candidates.isEmpty()) {
+                return new EmployeeSearchResult(List.of(), 0, page, size);
+            }
+            candidatesPerTerm.add(candidates);
+        }
+        candidatesPerTerm.sort(Comparator.comparingInt(Set::size));
+        Set<Long> matches = new HashSet<>(candidatesPerTerm.get(0));
+        for (int i = 1; i < candidatesPerTerm.size() && !matches.isEmpty(); i++) {
+            matches.retainAll(candidatesPerTerm.get(i));
+        }
+
+        List<ScoredDocument> ranked = new ArrayList<>(matches.size());
+        for (Long id : matches) {
+            Document document = documents.get(id);
+            //the employee can be removed while the query runs
+            if (document != null) {
+                ranked.add(new ScoredDocument(document, score(document, queryTerms)));
+            }
+        }
+        ranked.sort(Comparator.comparingInt(ScoredDocument::score).reversed()
+                .thenComparingLong(scored -> scored.document().employee().getId()));
+
+        //long: page * size overflows int for a large page number
+        int from = (int) Math.min((long) page * size, ranked.size());
+        int to = Math.min(from + size, ranked.size());
+        List<Employee> employees = ranked.subList(from, to).stream()
+                .map(scored -> scored.document().employee())
+                .toList();
+        return new EmployeeSearchResult(employees, ranked.size(), page, size);
+    }
+
+    private record ScoredDocument(Document document, int score) {
+    }
+
+    private Set<Long> candidates(String prefix) {
+        //all terms in [prefix, prefix + highest char) start with prefix
+        Collection<Postings> matchingTerms = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+        if (matchingTerms.size() == 1) {
+            return matchingTerms.iterator().next().asSet();
+        }
+        Set<Long> candidates = new HashSet<>();
+        matchingTerms.forEach(ids -> ids.addTo(candidates));
+        return candidates;
+    }
+
+    private static int score(Document document, List<String> queryTerms) {
+        int score = 0;
+        for (String queryTerm : queryTerms) {
+            score += Arrays.asList(document.terms()).contains(queryTerm) ? EXACT_MATCH_SCORE : PREFIX_MATCH_SCORE;
+        }
+        return score;
+    }
+
+    //the words of the names and the email, plus the whole email so a typed email prefix matches too
+    private static String[] terms(Employee employee) {
+        Set<String> terms = new HashSet<>();
+        terms.addAll(tokenize(employee.getFirstName()));
+        terms.addAll(tokenize(employee.getLastName()));
+        terms.addAll(tokenize(employee.getEmail()));
+        if (employee.getEmail() != null) {
+            terms.add(employee.getEmail().toLowerCase(Locale.ROOT));
+        }
+        return terms.toArray(String[]::new);
+    }
+
+    private static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
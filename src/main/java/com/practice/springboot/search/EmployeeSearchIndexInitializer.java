@@ -0,0 +1,37 @@
+package com.practice.springboot.search;
+
+import com.practice.springboot.routing.ReplicaRoutingDataSource;
+import com.practice.springboot.service.EmployeeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+//fills the search index once on startup by streaming the employees table, later changes are indexed by the service
+@Component
+public class EmployeeSearchIndexInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeSearchIndexInitializer.class);
+
+    private EmployeeService employeeService;
+
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    public EmployeeSearchIndexInitializer(EmployeeService employeeService, EmployeeSearchIndex employeeSearchIndex) {
+        this.employeeService = employeeService;
+        this.employeeSearchIndex = employeeSearchIndex;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        //the index is only updated by later writes, so it starts from the primary and not from a lagging replica
+        ReplicaRoutingDataSource.readPrimary(() -> {
+            employeeService.streamAllEmployees(employeeSearchIndex::index);
+            return null;
+        });
+        logger.info("Indexed {} employees for search in {} ms", employeeSearchIndex.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,107 @@
+package com.practice.springboot.search;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*Ids of the employees that contain one term.
+* Most terms (an email, a rare name) belong to one or a few employees, so the ids are kept
+* in a small sorted array that is copied on every change. Only a term shared by many employees,
+* like an email domain, is moved to a hash set, a hash set per term would cost about ten times the memory.
+* Changes have to be serialized by the caller, reads can run concurrently with them.*/
+
+final class Postings {
+
+    //above this many ids the copy on write gets more expensive than a hash set
+    static final int ARRAY_LIMIT = 16;
+
+    //a sorted long[] or a concurrent Set<Long>, replaced as a whole so readers never see a half made change
+    private volatile Object ids;
+
+    Postings(long id) {
+        this.ids = new long[]{id};
+    }
+
+    void add(long id) {
+        if (ids instanceof long[] array) {
+            int position = Arrays.binarySearch(array, id);
+            if (position >= 0) {
+                return;
+            }
+            if (array.length < ARRAY_LIMIT) {
+                int insertion = -position - 1;
+                long[] copy = new long[array.length + 1];
+                System.arraycopy(array, 0, copy, 0, insertion);
+                copy[insertion] = id;
+                System.arraycopy(array, insertion, copy, insertion + 1, array.length - insertion);
+                ids = copy;
+                return;
+            }
+            Set<Long> set = ConcurrentHashMap.newKeySet(ARRAY_LIMIT * 2);
+            for (long existing : array) {
+                set.add(existing);
+            }
+            set.add(id);
+            ids = set;
+            return;
+        }
+        set().add(id);
+    }
+
+    //returns true if no id is left, the term should then be dropped
+    boolean remove(long id) {
+        if (ids instanceof long[] array) {
+            int position = Arrays.binarySearch(array, id);
+            if (position < 0) {
+                return array.length == 0;
+            }
+            long[] copy = new long[array.length - 1];
+            System.arraycopy(array, 0, copy, 0, position);
+            System.arraycopy(array, position + 1, copy, position, copy.length - position);
+            ids = copy;
+            return copy.length == 0;
+        }
+        Set<Long> set = set();
+        set.remove(id);
+        return set.isEmpty();
+    }
+
+    int size() {
+        Object current = ids;
+        return current instanceof long[] array ? array.length : ((Set<?>) current).size();
+    }
+
+    void addTo(Set<Long> target) {
+        Object current = ids;
+        if (current instanceof long[] array) {
+            for (long id : array) {
+                target.add(id);
+            }
+        } else {
+            target.addAll(set(current));
+        }
+    }
+
+    //a read-only view for intersecting, the large case is returned without copying
+    Set<Long> asSet() {
+        Object current = ids;
+        if (current instanceof long[] array) {
+            Set<Long> set = new HashSet<>(array.length * 2);
+            for (long id : array) {
+                set.add(id);
+            }
+            return set;
+        }
+        return set(current);
+    }
+
+    private Set<Long> set() {
+        return set(ids);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<Long> set(Object ids) {
+        return (Set<Long>) ids;
+    }
+}
@@ -0,0 +1,15 @@
+package com.practice.springboot.service;
+
+import com.practice.springboot.model.Employee;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+public interface EmployeeAsyncService {
+    CompletableFuture<Employee> saveEmployee(Employee employee);
+    CompletableFuture<Void> streamAllEmployees(Consumer<Employee> consumer);
+    CompletableFuture<Optional<Employee>> getEmployeeById(long id);
+    CompletableFuture<Optional<Employee>> updateEmployee(long id, Employee employee);
+    CompletableFuture<Boolean> deleteEmployee(long id);
+}
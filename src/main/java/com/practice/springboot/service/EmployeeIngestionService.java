@@ -0,0 +1,11 @@
+package com.practice.springboot.service;
+
+import com.practice.springboot.model.Employee;
+import com.practice.springboot.model.IngestionStatus;
+
+import java.util.Optional;
+
+public interface EmployeeIngestionService {
+    IngestionStatus submit(Employee employee);
+    Optional<IngestionStatus> getStatus(String id);
+}
@@ -1,14 +1,31 @@
 package com.practice.springboot.service;
 
 import com.practice.springboot.model.Employee;
+import com.practice.springboot.model.EmployeeBatchResult;
+import com.practice.springboot.model.EmployeeMultiGetResult;
+import com.practice.springboot.model.EmployeeSearchResult;
+import com.practice.springboot.model.EmployeesVersion;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface EmployeeService {
     Employee saveEmployee (Employee employee);
+    EmployeeBatchResult saveEmployees(List<Employee> employees);
     List<Employee> getAllEmployees();
+    List<Employee> getEmployeesAfter(long afterId, int limit);
+    List<Map<String, Object>> getEmployeeFields(List<String> fields, long afterId, int limit);
+    void streamAllEmployees(Consumer<Employee> consumer);
+    EmployeeSearchResult searchEmployees(String query, int page, int size);
     Optional<Employee> getEmployeeById(long id);
+    Optional<Employee> getEmployeeByEmail(String email);
+    EmployeeMultiGetResult getEmployeesByIds(Collection<Long> ids);
     Employee updateEmployee(Employee updatedEmployee);
-    void deleteEmployee(long id);
+    Optional<Employee> updateEmployee(long id, Employee employee);
+    Optional<Employee> updateEmployee(long id, Employee employee, long expectedVersion);
+    EmployeesVersion getEmployeesVersion();
+    boolean deleteEmployee(long id);
 }
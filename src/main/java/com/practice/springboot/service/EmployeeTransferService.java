@@ -0,0 +1,13 @@
+package com.practice.springboot.service;
+
+import com.practice.springboot.model.EmployeeImportResult;
+import com.practice.springboot.transfer.TransferFormat;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+public interface EmployeeTransferService {
+    long exportEmployees(TransferFormat format, WritableByteChannel channel) throws IOException;
+    EmployeeImportResult importEmployees(TransferFormat format, ReadableByteChannel channel) throws IOException;
+}
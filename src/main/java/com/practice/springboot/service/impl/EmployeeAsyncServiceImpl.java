@@ -0,0 +1,69 @@
+package com.practice.springboot.service.impl;
+
+import com.practice.springboot.config.EmployeeProperties;
+import com.practice.springboot.model.Employee;
+import com.practice.springboot.service.EmployeeAsyncService;
+import com.practice.springboot.service.EmployeeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/*Non-blocking facade over EmployeeService.
+* JPA and JDBC are blocking, so every call runs on a small bounded pool of its own
+* and the request thread is handed back to Tomcat until the result is ready.
+* Many more requests can then wait for the database than there are request threads.*/
+
+@Service
+public class EmployeeAsyncServiceImpl implements EmployeeAsyncService {
+
+    private EmployeeService employeeService;
+
+    private ThreadPoolExecutor executor;
+
+    public EmployeeAsyncServiceImpl(EmployeeService employeeService, EmployeeProperties employeeProperties,
+                                    MeterRegistry meterRegistry) {
+        this.employeeService = employeeService;
+        EmployeeProperties.Async config = employeeProperties.getAsync();
+        this.executor = new ThreadPoolExecutor(config.getThreads(), config.getThreads(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.getQueueCapacity()), new CustomizableThreadFactory("employee-async-"));
+        //pool size, active threads and queued calls of the async pool
+        new ExecutorServiceMetrics(executor, "employee.async", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public CompletableFuture<Employee> saveEmployee(Employee employee) {
+        return CompletableFuture.supplyAsync(() -> employeeService.saveEmployee(employee), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> streamAllEmployees(Consumer<Employee> consumer) {
+        return CompletableFuture.runAsync(() -> employeeService.streamAllEmployees(consumer), executor);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Employee>> getEmployeeById(long id) {
+        return CompletableFuture.supplyAsync(() -> employeeService.getEmployeeById(id), executor);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Employee>> updateEmployee(long id, Employee employee) {
+        return CompletableFuture.supplyAsync(() -> employeeService.updateEmployee(id, employee), executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteEmployee(long id) {
+        return CompletableFuture.supplyAsync(() -> employeeService.deleteEmployee(id), executor);
+    }
+}
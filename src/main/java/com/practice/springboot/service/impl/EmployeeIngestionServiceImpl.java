@@ -0,0 +1,175 @@
+package com.practice.springboot.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.practice.springboot.config.EmployeeProperties;
+import com.practice.springboot.exception.IngestionQueueFullException;
+import com.practice.springboot.exception.ResourceNotFoundException;
+import com.practice.springboot.model.Employee;
+import com.practice.springboot.model.EmployeeBatchResult;
+import com.practice.springboot.model.IngestionStatus;
+import com.practice.springboot.model.RejectedEmployee;
+import com.practice.springboot.service.EmployeeIngestionService;
+import com.practice.springboot.service.EmployeeService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/*Write-behind ingestion of new employees.
+* submit() only puts the employee in a bounded queue and returns a tracking id, so the request thread
+* never waits for the database. One worker thread drains the queue in micro-batches and writes each batch
+* with EmployeeService.saveEmployees: one email lookup and one transaction with JDBC batched inserts
+* instead of a round-trip per employee. The outcome of every submission is kept for a while to be polled.*/
+
+@Service
+public class EmployeeIngestionServiceImpl implements EmployeeIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeIngestionServiceImpl.class);
+
+    private EmployeeService employeeService;
+
+    private BlockingQueue<Submission> queue;
+
+    private int batchSize;
+
+    //tracking id -> latest outcome, every state change replaces the entry so readers never see a half updated status
+    private Cache<String, IngestionStatus> statuses;
+
+    private Map<IngestionStatus.State, Counter> outcomes = new EnumMap<>(IngestionStatus.State.class);
+
+    private Thread worker;
+
+    private volatile boolean running;
+
+    private record Submission(String id, Employee employee) {
+    }
+
+    public EmployeeIngestionServiceImpl(EmployeeService employeeService, EmployeeProperties employeeProperties,
+                                        MeterRegistry meterRegistry) {
+        this.employeeService = employeeService;
+        EmployeeProperties.Ingest config = employeeProperties.getIngest();
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        this.batchSize = config.getBatchSize();
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(config.getStatusMaxSize())
+                .expireAfterWrite(config.getStatusTtl())
+                .build();
+        meterRegistry.gauge("employee.ingest.queue", queue, BlockingQueue::size);
+        for (IngestionStatus.State state : IngestionStatus.State.values()) {
+            outcomes.put(state, Counter.builder("employee.ingest.outcomes")
+                    .tag("state", state.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new CustomizableThreadFactory("employee-ingest-").newThread(this::drainContinuously);
+        worker.start();
+    }
+
+    //stops taking new work, the worker writes what is still queued before it ends
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    @Override
+    public IngestionStatus submit(Employee employee) {
+        String id = UUID.randomUUID().toString();
+        IngestionStatus status = IngestionStatus.builder().id(id).state(IngestionStatus.State.PENDING).build();
+        //the status has to exist before the worker can write the employee and replace it
+        statuses.put(id, status);
+        if (!running || !queue.offer(new Submission(id, employee))) {
+            statuses.invalidate(id);
+            throw new IngestionQueueFullException("Ingestion queue is full, try again later.");
+        }
+        return status;
+    }
+
+    @Override
+    public Optional<IngestionStatus> getStatus(String id) {
+        return Optional.ofNullable(statuses.getIfPresent(id));
+    }
+
+    private void drainContinuously() {
+        while (running || !queue.isEmpty()) {
+            try {
+                //wait for the first submission, then take whatever else is queued up to the batch size
+                Submission first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    List<Submission> batch = new ArrayList<>(batchSize);
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    write(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void write(List<Submission> batch) {
+        List<Employee> employees = batch.stream().map(Submission::employee).toList();
+        EmployeeBatchResult result;
+        try {
+            result = employeeService.saveEmployees(employees);
+        } catch (RuntimeException e) {
+            //the whole transaction was rolled back, none of the batch was created.
+            //Usually one bad row, e.g. an email inserted by someone else after the check: retry the rows one by one
+            logger.warn("Ingestion batch of {} employees failed, writing them one by one", batch.size(), e);
+            batch.forEach(this::writeOne);
+            return;
+        }
+
+        Map<Integer, String> rejectedReasons = new HashMap<>();
+        for (RejectedEmployee rejected : result.getRejected()) {
+            rejectedReasons.put(rejected.getIndex(), rejected.getReason());
+        }
+        //the saved employees are in the order of the batch without the rejected ones. They are the service's
+        //instances with the new ids, the sharded service saves copies and leaves the submitted ones untouched
+        Iterator<Employee> saved = result.getSaved().iterator();
+        for (int i = 0; i < batch.size(); i++) {
+            Submission submission = batch.get(i);
+            String reason = rejectedReasons.get(i);
+            if (reason != null) {
+                complete(IngestionStatus.builder().id(submission.id()).state(IngestionStatus.State.REJECTED)
+                        .reason(reason).build());
+            } else {
+                complete(IngestionStatus.builder().id(submission.id()).state(IngestionStatus.State.CREATED)
+                        .employee(saved.next()).build());
+            }
+        }
+    }
+
+    private void writeOne(Submission submission) {
+        IngestionStatus.IngestionStatusBuilder status = IngestionStatus.builder().id(submission.id());
+        try {
+            status.state(IngestionStatus.State.CREATED).employee(employeeService.saveEmployee(submission.employee()));
+        } catch (ResourceNotFoundException e) {
+            status.state(IngestionStatus.State.REJECTED).reason(e.getMessage());
+        } catch (RuntimeException e) {
+            logger.warn("Ingestion of employee {} failed", submission.id(), e);
+            status.state(IngestionStatus.State.FAILED).reason(e.getMessage());
+        }
+        complete(status.build());
+    }
+
+    private void complete(IngestionStatus status) {
+        statuses.put(status.getId(), status);
+        outcomes.get(status.getState()).increment();
+    }
+}
@@ -0,0 +1,95 @@
+package com.practice.springboot.service.impl;
+
+import com.practice.springboot.model.Employee;
+import com.practice.springboot.repository.EmployeeRepository;
+import com.practice.springboot.routing.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.DistributionSummary;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*Micro-batching of lookups by id: ids requested within a short window are loaded with one findAllById.
+* The first id of a window schedules the flush, the ids that follow only join the queue.
+* Each caller still waits for its own employee, so this trades up to one window of latency
+* for one query per window instead of one query per distinct id.*/
+
+class EmployeeLoadBatcher {
+
+    //keeps the IN (...) list of one query small
+    static final int MAX_BATCH_SIZE = 100;
+
+    private final EmployeeRepository employeeRepository;
+
+    private final long windowNanos;
+
+    private final DistributionSummary batchSizes;
+
+    private final Queue<PendingLoad> pending = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final ScheduledExecutorService scheduler;
+
+    private record PendingLoad(long id, CompletableFuture<Optional<Employee>> result) {
+    }
+
+    EmployeeLoadBatcher(EmployeeRepository employeeRepository, Duration window, DistributionSummary batchSizes) {
+        this.employeeRepository = employeeRepository;
+        this.windowNanos = window.toNanos();
+        this.batchSizes = batchSizes;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("employee-batch-load-");
+        threadFactory.setDaemon(true);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    Optional<Employee> load(long id) {
+        PendingLoad load = new PendingLoad(id, new CompletableFuture<>());
+        pending.add(load);
+        if (flushScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::flush, windowNanos, TimeUnit.NANOSECONDS);
+        }
+        try {
+            return load.result().join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException runtimeException ? runtimeException : e;
+        }
+    }
+
+    private void flush() {
+        //loads queued from here on start the next window
+        flushScheduled.set(false);
+        List<PendingLoad> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        PendingLoad load;
+        while ((load = pending.poll()) != null) {
+            batch.add(load);
+            if (batch.size() == MAX_BATCH_SIZE) {
+                loadBatch(batch);
+                batch = new ArrayList<>(MAX_BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            loadBatch(batch);
+        }
+    }
+
+    private void loadBatch(List<PendingLoad> batch) {
+        Set<Long> ids = new HashSet<>();
+        batch.forEach(load -> ids.add(load.id()));
+        batchSizes.record(ids.size());
+        try {
+            Map<Long, Employee> employees = new HashMap<>();
+            //the employees are cached, so they are read from the primary like the unbatched lookups
+            ReplicaRoutingDataSource.readPrimary(() -> employeeRepository.findAllById(ids)).forEach(employee -> employees.put(employee.getId(), employee));
+            batch.forEach(load -> load.result().complete(Optional.ofNullable(employees.get(load.id()))));
+        } catch (RuntimeException e) {
+            batch.forEach(load -> load.result().completeExceptionally(e));
+        }
+    }
+
+    void shutdown() {
+        scheduler.shutdown();
+    }
+}
@@ -1,62 +1,404 @@
 package com.practice.springboot.service.impl;
 
-import com.practice.springboot.exception.EmployeeIdNotFoundException;
+import com.practice.springboot.cache.EmployeeCache;
+import com.practice.springboot.cache.SingleFlight;
+import com.practice.springboot.changes.EmployeeChangeFeed;
+import com.practice.springboot.config.EmployeeProperties;
+import com.practice.springboot.exception.EmployeeVersionConflictException;
 import com.practice.springboot.exception.ResourceNotFoundException;
 import com.practice.springboot.model.Employee;
+import com.practice.springboot.model.EmployeeBatchResult;
+import com.practice.springboot.model.EmployeeChangeEvent;
+import com.practice.springboot.model.EmployeeMultiGetResult;
+import com.practice.springboot.model.EmployeeSearchResult;
+import com.practice.springboot.model.EmployeesVersion;
+import com.practice.springboot.model.RejectedEmployee;
 import com.practice.springboot.repository.EmployeeRepository;
+import com.practice.springboot.routing.ReplicaRoutingDataSource;
+import com.practice.springboot.search.EmployeeSearchIndex;
 import com.practice.springboot.service.EmployeeService;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.stream.Stream;
 
 @Service
+//the JPA implementation, replaced by ShardedEmployeeServiceImpl when employee.sharding.enabled=true
+@ConditionalOnProperty(prefix = "employee.sharding", name = "enabled", havingValue = "false", matchIfMissing = true)
+//every public method gets a latency timer, the exception tag counts failures by exception type
+@Timed(value = "employee.service", histogram = true, percentiles = {0.5, 0.95, 0.99})
 public class EmployeeServiceImpl implements EmployeeService {
 
     //@Autowired
     // I will use the constructor based dependency injection approach to inject EmployeeRepository in the EmployeeServiceImpl objects
     private EmployeeRepository employeeRepository;
 
-    public EmployeeServiceImpl(EmployeeRepository employeeRepository) {
+    //used to detach streamed rows so the persistence context does not grow with the table
+    private EntityManager entityManager;
+
+    private EmployeeProperties employeeProperties;
+
+    //read-through cache for lookups by id and by email
+    private EmployeeCache employeeCache;
+
+    //in-memory index for search, kept in step with every write of this service
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    //every committed write is appended to the change feed for the SSE subscribers
+    private EmployeeChangeFeed employeeChangeFeed;
+
+    //number of rows returned by getAllEmployees
+    private DistributionSummary allEmployeesRows;
+
+    //concurrent cache misses for the same id or email share one query
+    private SingleFlight<Long, Optional<Employee>> idLookups;
+    private SingleFlight<String, Optional<Employee>> emailLookups;
+
+    //loads the ids that miss the cache within a short window with one query, null if employee.cache.batch-window is 0
+    private EmployeeLoadBatcher loadBatcher;
+
+    //keeps each IN (...) list well below the bind parameter limits of common databases
+    private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository, EntityManager entityManager,
+                               EmployeeProperties employeeProperties, EmployeeCache employeeCache,
+                               EmployeeSearchIndex employeeSearchIndex, EmployeeChangeFeed employeeChangeFeed,
+                               MeterRegistry meterRegistry) {
         this.employeeRepository = employeeRepository;
+        this.entityManager = entityManager;
+        this.employeeProperties = employeeProperties;
+        this.employeeCache = employeeCache;
+        this.employeeSearchIndex = employeeSearchIndex;
+        this.employeeChangeFeed = employeeChangeFeed;
+        this.allEmployeesRows = DistributionSummary.builder("employee.service.rows")
+                .tag("method", "getAllEmployees")
+                .baseUnit("rows")
+                .register(meterRegistry);
+        this.idLookups = new SingleFlight<>(coalescedCounter(meterRegistry, "id"));
+        this.emailLookups = new SingleFlight<>(coalescedCounter(meterRegistry, "email"));
+        Duration batchWindow = employeeProperties.getCache().getBatchWindow();
+        if (!batchWindow.isZero()) {
+            this.loadBatcher = new EmployeeLoadBatcher(employeeRepository, batchWindow,
+                    DistributionSummary.builder("employee.service.batch.ids")
+                            .description("Distinct ids loaded by one findAllById")
+                            .register(meterRegistry));
+        }
+    }
+
+    //stops the scheduler thread of the batch window
+    @PreDestroy
+    public void shutdown() {
+        if (loadBatcher != null) {
+            loadBatcher.shutdown();
+        }
+    }
+
+    private static Counter coalescedCounter(MeterRegistry meterRegistry, String key) {
+        return Counter.builder("employee.service.coalesced")
+                .description("Lookups that shared the query of a concurrent lookup for the same key")
+                .tag("key", key)
+                .register(meterRegistry);
     }
 
     @Override
     public Employee saveEmployee(Employee employee) {
-        //if the employee email is not unique then throw an exception
-        Optional<Employee> savedEmployee = employeeRepository.findByEmail(employee.getEmail());
-        if (savedEmployee.isPresent()) {
-            throw new ResourceNotFoundException("Employee already exists with the given email: " + employee.getEmail());
+        //if the employee email is not unique then throw an exception.
+        //Only the unique constraint on email decides: a cached email may be stale (changed or deleted since),
+        //and the constraint also holds when two requests insert the same email at the same time
+        Employee newEmployee;
+        try {
+            newEmployee = employeeRepository.saveAndFlush(employee);
+        } catch (DataIntegrityViolationException e) {
+            if (isEmailUniqueViolation(e)) {
+                throw duplicateEmail(employee.getEmail());
+            }
+            throw e;
+        }
+        employeeCache.put(newEmployee);
+        employeeSearchIndex.index(newEmployee);
+        employeeChangeFeed.publish(EmployeeChangeEvent.Type.CREATED, newEmployee);
+        return newEmployee;
+    }
+
+    private static boolean isEmailUniqueViolation(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(Employee.EMAIL_UNIQUE_CONSTRAINT);
+    }
+
+    private static ResourceNotFoundException duplicateEmail(String email) {
+        return new ResourceNotFoundException("Employee already exists with the given email: " + email);
+    }
+
+
+    @Override
+    @Transactional
+    public EmployeeBatchResult saveEmployees(List<Employee> employees) {
+        //emails already in the database, a new email is added as soon as its row is accepted
+        Set<String> takenEmails = findExistingEmails(employees);
+        List<Employee> saved = new ArrayList<>();
+        List<RejectedEmployee> rejected = new ArrayList<>();
+        int batchSize = employeeProperties.getBatch().getSize();
+
+        for (int i = 0; i < employees.size(); i++) {
+            Employee employee = employees.get(i);
+            //add() returns false if the email is in the database or was used by an earlier row of this request
+            if (!takenEmails.add(employee.getEmail())) {
+                rejected.add(new RejectedEmployee(i, employee.getEmail(), "Employee already exists with the given email"));
+                continue;
+            }
+            //bulk create always inserts, ids sent by the client are ignored
+            employee.setId(0);
+            entityManager.persist(employee);
+            saved.add(employee);
+            //send every full batch as one JDBC batch and keep the persistence context small.
+            //A batch size of 0 or less turns JDBC batching off and flushes everything at the end
+            if (batchSize > 0 && saved.size() % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
         }
-        return employeeRepository.save(employee);
+        entityManager.flush();
+        entityManager.clear();
+        //indexed and published when the transaction commits
+        employeeSearchIndex.indexAll(saved);
+        employeeChangeFeed.publishAll(EmployeeChangeEvent.Type.CREATED, saved);
+        return new EmployeeBatchResult(saved, rejected);
+    }
+
+    private Set<String> findExistingEmails(List<Employee> employees) {
+        List<String> emails = employees.stream().map(Employee::getEmail).distinct().toList();
+        Set<String> existingEmails = new HashSet<>();
+        for (int from = 0; from < emails.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            List<String> chunk = emails.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, emails.size()));
+            existingEmails.addAll(employeeRepository.findExistingEmails(chunk));
+        }
+        return existingEmails;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Employee> getAllEmployees() {
-        return employeeRepository.findAll();
+        List<Employee> employees = employeeRepository.findAll();
+        allEmployeesRows.record(employees.size());
+        return employees;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Employee> getEmployeesAfter(long afterId, int limit) {
+        return employeeRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.ofSize(limit));
+    }
+
+    //read-only: only the selected columns are fetched and no entity or dirty-checking snapshot is created
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getEmployeeFields(List<String> fields, long afterId, int limit) {
+        return employeeRepository.findFields(fields, afterId, limit);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllEmployees(Consumer<Employee> consumer) {
+        //the stream holds an open cursor, so it has to be consumed inside this transaction and closed afterwards
+        try (Stream<Employee> employees = employeeRepository.streamAll()) {
+            employees.forEach(employee -> {
+                consumer.accept(employee);
+                entityManager.detach(employee);
+            });
+        }
+    }
+
+    @Override
+    public EmployeeSearchResult searchEmployees(String query, int page, int size) {
+        return employeeSearchIndex.search(query, page, size);
+    }
+
+    //not transactional on purpose: a cache hit should not take a connection.
+    //A miss is read from the primary even when a replica is configured: the row is cached for longer than the replica lags
     @Override
     public Optional<Employee> getEmployeeById(long id) {
-        Optional<Employee> employee = employeeRepository.findById(id);
-        if (employee.isEmpty()) {
-            throw new EmployeeIdNotFoundException("Provided employee id is not found: " + id);
+        Optional<Employee> cachedEmployee = employeeCache.getById(id);
+        if (cachedEmployee.isPresent()) {
+            return cachedEmployee;
         }
-        return employee;
+        //a popular id that is not cached yet is loaded once, however many requests ask for it at the same time.
+        //An unknown id is an empty result, not an exception: lookups of random ids must stay cheap
+        return idLookups.execute(id, () -> {
+            //taken before the query: a write committing while the query runs keeps the result out of the cache
+            long loadStamp = employeeCache.loadStamp(id);
+            Optional<Employee> loaded = loadBatcher != null ? loadBatcher.load(id)
+                    : ReplicaRoutingDataSource.readPrimary(() -> employeeRepository.findById(id));
+            loaded.ifPresent(employee -> employeeCache.putLoaded(employee, loadStamp, true));
+            return loaded;
+        });
+    }
+
+    //cached employees are taken from the cache, all the others are loaded with one findAllById per 1000 ids.
+    //A missing id is only listed in the result, nothing is thrown
+    @Override
+    public EmployeeMultiGetResult getEmployeesByIds(Collection<Long> ids) {
+        Set<Long> requestedIds = new LinkedHashSet<>(ids);
+        Map<Long, Employee> found = new HashMap<>();
+        List<Long> uncachedIds = new ArrayList<>();
+        for (Long id : requestedIds) {
+            Optional<Employee> cachedEmployee = employeeCache.getById(id);
+            if (cachedEmployee.isPresent()) {
+                found.put(id, cachedEmployee.get());
+            } else {
+                uncachedIds.add(id);
+            }
+        }
+        for (int from = 0; from < uncachedIds.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            List<Long> chunk = uncachedIds.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, uncachedIds.size()));
+            long loadStamp = employeeCache.loadStamp();
+            for (Employee employee : ReplicaRoutingDataSource.readPrimary(() -> employeeRepository.findAllById(chunk))) {
+                employeeCache.putLoaded(employee, loadStamp, false);
+                found.put(employee.getId(), employee);
+            }
+        }
+
+        List<Employee> employees = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requestedIds) {
+            Employee employee = found.get(id);
+            if (employee != null) {
+                employees.add(employee);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new EmployeeMultiGetResult(employees, missing);
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeByEmail(String email) {
+        Optional<Employee> cachedEmployee = employeeCache.getByEmail(email);
+        if (cachedEmployee.isPresent()) {
+            return cachedEmployee;
+        }
+        return emailLookups.execute(email, () -> {
+            long loadStamp = employeeCache.loadStamp();
+            Optional<Employee> loaded = ReplicaRoutingDataSource.readPrimary(() -> employeeRepository.findByEmail(email));
+            loaded.ifPresent(employee -> employeeCache.putLoaded(employee, loadStamp, false));
+            return loaded;
+        });
     }
 
     @Override
     public Employee updateEmployee(Employee updatedEmployee) {
-        return employeeRepository.save(updatedEmployee);
+        //evict first, so a failed save does not leave the old state cached next to the new one.
+        //put() after the save keeps loads that raced the save from caching the old state
+        employeeCache.evict(updatedEmployee.getId());
+        Employee employee = employeeRepository.save(updatedEmployee);
+        employeeCache.put(employee);
+        employeeSearchIndex.index(employee);
+        employeeChangeFeed.publish(EmployeeChangeEvent.Type.UPDATED, employee);
+        return employee;
+    }
+
+    @Override
+    public Optional<Employee> updateEmployee(long id, Employee employee) {
+        int updatedRows = executeUpdate(id, employee.getEmail(), () -> employeeRepository.updateById(id,
+                employee.getFirstName(), employee.getLastName(), employee.getEmail()));
+        //no updated row means there is no employee with this id
+        if (updatedRows == 0) {
+            return Optional.empty();
+        }
+        //the new version is not known without reading the row again, so the result is not cached
+        Employee updatedEmployee = Employee.builder()
+                .id(id)
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email(employee.getEmail())
+                .build();
+        employeeSearchIndex.index(updatedEmployee);
+        employeeChangeFeed.publish(EmployeeChangeEvent.Type.UPDATED, updatedEmployee);
+        return Optional.of(updatedEmployee);
+    }
+
+    @Override
+    public Optional<Employee> updateEmployee(long id, Employee employee, long expectedVersion) {
+        int updatedRows = executeUpdate(id, employee.getEmail(), () -> employeeRepository.updateByIdAndVersion(id,
+                expectedVersion, employee.getFirstName(), employee.getLastName(), employee.getEmail()));
+        if (updatedRows == 0) {
+            //only on failure: find out if the id is missing or the row has another version
+            if (!employeeRepository.existsById(id)) {
+                return Optional.empty();
+            }
+            throw new EmployeeVersionConflictException("Employee " + id + " no longer has version " + expectedVersion);
+        }
+        Employee updatedEmployee = Employee.builder()
+                .id(id)
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email(employee.getEmail())
+                .version(expectedVersion + 1)
+                .build();
+        employeeCache.put(updatedEmployee);
+        employeeSearchIndex.index(updatedEmployee);
+        employeeChangeFeed.publish(EmployeeChangeEvent.Type.UPDATED, updatedEmployee);
+        return Optional.of(updatedEmployee);
+    }
+
+    //runs a single statement update and returns the number of updated rows.
+    //The employee is evicted before and again after the statement has committed:
+    //a load that read the old row while the update ran must not cache it
+    private int executeUpdate(long id, String email, IntSupplier update) {
+        employeeCache.evict(id);
+        try {
+            return update.getAsInt();
+        } catch (DataIntegrityViolationException e) {
+            if (isEmailUniqueViolation(e)) {
+                throw duplicateEmail(email);
+            }
+            throw e;
+        } finally {
+            employeeCache.evict(id);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeesVersion getEmployeesVersion() {
+        return employeeRepository.findEmployeesVersion();
     }
 
     @Override
-    public void deleteEmployee(long id) {
-        Optional<Employee> employeeToDelete = employeeRepository.findById(id);
-        if (employeeToDelete.isEmpty()) {
-            throw new EmployeeIdNotFoundException("Provided employee id is not found: " + id);
+    //false if no employee has this id
+    public boolean deleteEmployee(long id) {
+        int deletedRows = employeeRepository.deleteEmployeeById(id);
+        //after the delete has committed, so a load that raced it cannot cache the deleted row
+        employeeCache.evict(id);
+        employeeSearchIndex.remove(id);
+        if (deletedRows == 0) {
+            return false;
         }
-        employeeRepository.deleteById(id);
+        employeeChangeFeed.publish(EmployeeChangeEvent.Type.DELETED, id, null);
+        return true;
     }
 }
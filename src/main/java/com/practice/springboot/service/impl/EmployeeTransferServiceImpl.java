@@ -0,0 +1,110 @@
+package com.practice.springboot.service.impl;
+
+import com.practice.springboot.model.Employee;
+import com.practice.springboot.model.EmployeeBatchResult;
+import com.practice.springboot.model.EmployeeImportResult;
+import com.practice.springboot.service.EmployeeService;
+import com.practice.springboot.service.EmployeeTransferService;
+import com.practice.springboot.transfer.EmployeeReader;
+import com.practice.springboot.transfer.EmployeeWriter;
+import com.practice.springboot.transfer.TransferFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/*Bulk export and import of the employees table.
+* Export streams the rows from the database cursor straight into the channel,
+* import parses one row at a time and writes them in chunks with saveEmployees (JDBC batched inserts).
+* Neither side ever holds more than one chunk of employees in memory.*/
+
+@Service
+public class EmployeeTransferServiceImpl implements EmployeeTransferService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeTransferServiceImpl.class);
+
+    //rows written per transaction on import
+    static final int IMPORT_CHUNK_SIZE = 5000;
+
+    private EmployeeService employeeService;
+
+    public EmployeeTransferServiceImpl(EmployeeService employeeService) {
+        this.employeeService = employeeService;
+    }
+
+    @Override
+    public long exportEmployees(TransferFormat format, WritableByteChannel channel) throws IOException {
+        long start = System.nanoTime();
+        EmployeeWriter writer = format.writer(channel);
+        long[] rows = {0};
+        try {
+            employeeService.streamAllEmployees(employee -> {
+                try {
+                    writer.write(employee);
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.finish();
+        long millis = elapsedMillis(start);
+        logger.info("Exported {} employees as {} in {} ms ({} rows/s)", rows[0], format, millis, rowsPerSecond(rows[0], millis));
+        return rows[0];
+    }
+
+    //ids in the input are not kept, the employees get new ids like any other created employee
+    @Override
+    public EmployeeImportResult importEmployees(TransferFormat format, ReadableByteChannel channel) throws IOException {
+        long start = System.nanoTime();
+        EmployeeReader reader = format.reader(channel);
+        long imported = 0;
+        long rejected = 0;
+        List<Employee> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        Employee employee;
+        while ((employee = reader.read()) != null) {
+            if (!hasRequiredFields(employee)) {
+                rejected++;
+                continue;
+            }
+            chunk.add(employee);
+            if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                EmployeeBatchResult result = employeeService.saveEmployees(chunk);
+                imported += result.getSaved().size();
+                rejected += result.getRejected().size();
+                chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            EmployeeBatchResult result = employeeService.saveEmployees(chunk);
+            imported += result.getSaved().size();
+            rejected += result.getRejected().size();
+        }
+        long millis = elapsedMillis(start);
+        long rowsPerSecond = rowsPerSecond(imported + rejected, millis);
+        logger.info("Imported {} employees ({} rejected) as {} in {} ms ({} rows/s)", imported, rejected, format, millis, rowsPerSecond);
+        return new EmployeeImportResult(imported, rejected, millis, rowsPerSecond);
+    }
+
+    //a row without one of the not null columns would fail the insert of its whole chunk, and the import
+    //after the chunks that were already committed. It is counted as rejected like a duplicate email
+    private static boolean hasRequiredFields(Employee employee) {
+        return employee.getFirstName() != null && employee.getLastName() != null && employee.getEmail() != null;
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static long rowsPerSecond(long rows, long millis) {
+        return millis == 0 ? rows * 1000 : rows * 1000 / millis;
+    }
+}
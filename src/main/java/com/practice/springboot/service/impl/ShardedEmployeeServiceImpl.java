@@ -0,0 +1,280 @@
+package com.practice.springboot.service.impl;
+
+import com.practice.springboot.cache.EmployeeCache;
+import com.practice.springboot.changes.EmployeeChangeFeed;
+import com.practice.springboot.exception.EmployeeIdNotFoundException;
+import com.practice.springboot.exception.EmployeeVersionConflictException;
+import com.practice.springboot.exception.ResourceNotFoundException;
+import com.practice.springboot.model.Employee;
+import com.practice.springboot.model.EmployeeBatchResult;
+import com.practice.springboot.model.EmployeeChangeEvent;
+import com.practice.springboot.model.EmployeeMultiGetResult;
+import com.practice.springboot.model.EmployeeSearchResult;
+import com.practice.springboot.model.EmployeesVersion;
+import com.practice.springboot.model.RejectedEmployee;
+import com.practice.springboot.repository.EmployeeRepositoryCustom;
+import com.practice.springboot.search.EmployeeSearchIndex;
+import com.practice.springboot.service.EmployeeService;
+import com.practice.springboot.sharding.ShardedEmployeeRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/*EmployeeService on top of ShardedEmployeeRepository, used when employee.sharding.enabled=true.
+* Same contract as EmployeeServiceImpl: the cache, the search index and the change feed are kept in step the same way.
+* The shards are written without a shared transaction, every write is a single statement on the shard of the id.*/
+
+@Service
+@ConditionalOnProperty(prefix = "employee.sharding", name = "enabled", havingValue = "true")
+@Timed(value = "employee.service", histogram = true, percentiles = {0.5, 0.95, 0.99})
+public class ShardedEmployeeServiceImpl implements EmployeeService {
+
+    //the values of the fields that getEmployeeFields can select
+    private static final Map<String, Function<Employee, Object>> FIELD_GETTERS = Map.of(
+            "id", Employee::getId,
+            "firstName", Employee::getFirstName,
+            "lastName", Employee::getLastName,
+            "email", Employee::getEmail);
+
+    private ShardedEmployeeRepository shardedEmployeeRepository;
+
+    private EmployeeCache employeeCache;
+
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    private EmployeeChangeFeed employeeChangeFeed;
+
+    public ShardedEmployeeServiceImpl(ShardedEmployeeRepository shardedEmployeeRepository, EmployeeCache employeeCache,
+                                      EmployeeSearchIndex employeeSearchIndex, EmployeeChangeFeed employeeChangeFeed) {
+        this.shardedEmployeeRepository = shardedEmployeeRepository;
+        this.employeeCache = employeeCache;
+        this.employeeSearchIndex = employeeSearchIndex;
+        this.employeeChangeFeed = employeeChangeFeed;
+    }
+
+    @Override
+    public Employee saveEmployee(Employee employee) {
+        //the email claim on the shard of the email decides, a cached employee may have changed its email since
+        Employee newEmployee;
+        try {
+            newEmployee = shardedEmployeeRepository.insert(employee);
+        } catch (DuplicateKeyException e) {
+            throw duplicateEmail(employee.getEmail());
+        }
+        employeeCache.put(newEmployee);
+        employeeSearchIndex.index(newEmployee);
+        employeeChangeFeed.publish(EmployeeChangeEvent.Type.CREATED, newEmployee);
+        return newEmployee;
+    }
+
+    private static ResourceNotFoundException duplicateEmail(String email) {
+        return new ResourceNotFoundException("Employee already exists with the given email: " + email);
+    }
+
+    @Override
+    public EmployeeBatchResult saveEmployees(List<Employee> employees) {
+        List<Employee> inserted = shardedEmployeeRepository.insertAll(employees);
+        List<Employee> saved = new ArrayList<>();
+        List<RejectedEmployee> rejected = new ArrayList<>();
+        for (int i = 0; i < inserted.size(); i++) {
+            Employee employee = inserted.get(i);
+            if (employee == null) {
+                rejected.add(new RejectedEmployee(i, employees.get(i).getEmail(), "Employee already exists with the given email"));
+            } else {
+                saved.add(employee);
+            }
+        }
+        employeeSearchIndex.indexAll(saved);
+        employeeChangeFeed.publishAll(EmployeeChangeEvent.Type.CREATED, saved);
+        return new EmployeeBatchResult(saved, rejected);
+    }
+
+    @Override
+    public List<Employee> getAllEmployees() {
+        return shardedEmployeeRepository.findAll();
+    }
+
+    @Override
+    public List<Employee> getEmployeesAfter(long afterId, int limit) {
+        return shardedEmployeeRepository.findAfter(afterId, limit);
+    }
+
+    //the rows are read whole and projected here, the shards have only four columns
+    @Override
+    public List<Map<String, Object>> getEmployeeFields(List<String> fields, long afterId, int limit) {
+        for (String field : fields) {
+            if (!EmployeeRepositoryCustom.FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Unknown employee field: " + field);
+            }
+        }
+        //a limit of 0 returns every remaining row
+        return shardedEmployeeRepository.findAfter(afterId, limit > 0 ? limit : Integer.MAX_VALUE).stream()
+                .map(employee -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    fields.forEach(field -> row.put(field, FIELD_GETTERS.get(field).apply(employee)));
+                    return row;
+                })
+                .toList();
+    }
+
+    //one shard after the other, so the employees are not ordered by id across shards
+    @Override
+    public void streamAllEmployees(Consumer<Employee> consumer) {
+        shardedEmployeeRepository.forEach(consumer);
+    }
+
+    @Override
+    public EmployeeSearchResult searchEmployees(String query, int page, int size) {
+        return employeeSearchIndex.search(query, page, size);
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeById(long id) {
+        Optional<Employee> cachedEmployee = employeeCache.getById(id);
+        if (cachedEmployee.isPresent()) {
+            return cachedEmployee;
+        }
+        //taken before the query: a write finishing while the query runs keeps the result out of the cache
+        long loadStamp = employeeCache.loadStamp(id);
+        Optional<Employee> loaded = shardedEmployeeRepository.findById(id);
+        loaded.ifPresent(employee -> employeeCache.putLoaded(employee, loadStamp, true));
+        return loaded;
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeByEmail(String email) {
+        Optional<Employee> cachedEmployee = employeeCache.getByEmail(email);
+        if (cachedEmployee.isPresent()) {
+            return cachedEmployee;
+        }
+        long loadStamp = employeeCache.loadStamp();
+        Optional<Employee> loaded = shardedEmployeeRepository.findByEmail(email);
+        loaded.ifPresent(employee -> employeeCache.putLoaded(employee, loadStamp, false));
+        return loaded;
+    }
+
+    //cached employees are taken from the cache, the others are loaded with one query per shard
+    @Override
+    public EmployeeMultiGetResult getEmployeesByIds(Collection<Long> ids) {
+        Set<Long> requestedIds = new LinkedHashSet<>(ids);
+        Map<Long, Employee> found = new HashMap<>();
+        List<Long> uncachedIds = new ArrayList<>();
+        for (Long id : requestedIds) {
+            Optional<Employee> cachedEmployee = employeeCache.getById(id);
+            if (cachedEmployee.isPresent()) {
+                found.put(id, cachedEmployee.get());
+            } else {
+                uncachedIds.add(id);
+            }
+        }
+        if (!uncachedIds.isEmpty()) {
+            long loadStamp = employeeCache.loadStamp();
+            for (Employee employee : shardedEmployeeRepository.findAllById(uncachedIds)) {
+                employeeCache.putLoaded(employee, loadStamp, false);
+                found.put(employee.getId(), employee);
+            }
+        }
+
+        List<Employee> employees = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requestedIds) {
+            Employee employee = found.get(id);
+            if (employee != null) {
+                employees.add(employee);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new EmployeeMultiGetResult(employees, missing);
+    }
+
+    @Override
+    public Employee updateEmployee(Employee updatedEmployee) {
+        return updateEmployee(updatedEmployee.getId(), updatedEmployee)
+                .orElseThrow(() -> new EmployeeIdNotFoundException("Employee not found with id: " + updatedEmployee.getId()));
+    }
+
+    //last write wins: a row changed between the read and the update is read again
+    @Override
+    public Optional<Employee> updateEmployee(long id, Employee employee) {
+        while (true) {
+            Optional<Employee> current = shardedEmployeeRepository.findById(id);
+            if (current.isEmpty()) {
+                return Optional.empty();
+            }
+            Optional<Employee> updated = update(current.get(), employee);
+            if (updated.isPresent()) {
+                return updated;
+            }
+        }
+    }
+
+    @Override
+    public Optional<Employee> updateEmployee(long id, Employee employee, long expectedVersion) {
+        Optional<Employee> current = shardedEmployeeRepository.findById(id);
+        if (current.isEmpty()) {
+            return Optional.empty();
+        }
+        Optional<Employee> updated = current.get().getVersion() == expectedVersion
+                ? update(current.get(), employee)
+                : Optional.empty();
+        return Optional.of(updated.orElseThrow(
+                () -> new EmployeeVersionConflictException("Employee " + id + " no longer has version " + expectedVersion)));
+    }
+
+    //empty if the row no longer has the version of current
+    private Optional<Employee> update(Employee current, Employee changes) {
+        employeeCache.evict(current.getId());
+        boolean updated;
+        try {
+            updated = shardedEmployeeRepository.update(current, changes);
+        } catch (DuplicateKeyException e) {
+            throw duplicateEmail(changes.getEmail());
+        }
+        if (!updated) {
+            return Optional.empty();
+        }
+        Employee updatedEmployee = Employee.builder()
+                .id(current.getId())
+                .firstName(changes.getFirstName())
+                .lastName(changes.getLastName())
+                .email(changes.getEmail())
+                .version(current.getVersion() + 1)
+                .build();
+        employeeCache.put(updatedEmployee);
+        employeeSearchIndex.index(updatedEmployee);
+        employeeChangeFeed.publish(EmployeeChangeEvent.Type.UPDATED, updatedEmployee);
+        return Optional.of(updatedEmployee);
+    }
+
+    @Override
+    public EmployeesVersion getEmployeesVersion() {
+        return shardedEmployeeRepository.findEmployeesVersion();
+    }
+
+    @Override
+    //false if no employee has this id
+    public boolean deleteEmployee(long id) {
+        boolean deleted = shardedEmployeeRepository.deleteById(id);
+        employeeCache.evict(id);
+        employeeSearchIndex.remove(id);
+        if (!deleted) {
+            return false;
+        }
+        employeeChangeFeed.publish(EmployeeChangeEvent.Type.DELETED, id, null);
+        return true;
+    }
+}
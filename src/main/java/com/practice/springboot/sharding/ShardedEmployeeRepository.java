@@ -0,0 +1,330 @@
+package com.practice.springboot.sharding;
+
+import com.practice.springboot.model.Employee;
+import com.practice.springboot.model.EmployeesVersion;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/*Employees spread over several databases.
+* A row lives on the shard its id hashes to, so lookups, updates and deletes by id touch one database.
+* The unique email is enforced by a claim in employee_emails on the shard the email hashes to: a new or changed
+* email is claimed first, and the claim is released again if the row could not be written. A delete releases every
+* claim of the employee id, whatever email the row had. The two shards are
+* not written in one transaction, a crash in between leaves at most an unused claim that blocks its email.
+* Queries without an id (all rows, pages, names) run on every shard in parallel and the sorted results are merged.
+* Moving rows when the number of shards changes is not supported, the shard list must stay the same.*/
+
+public class ShardedEmployeeRepository {
+
+    private static final String COLUMNS = "id, first_name, last_name, email, version";
+
+    private static final RowMapper<Employee> EMPLOYEE_ROW_MAPPER = (resultSet, rowNumber) -> Employee.builder()
+            .id(resultSet.getLong("id"))
+            .firstName(resultSet.getString("first_name"))
+            .lastName(resultSet.getString("last_name"))
+            .email(resultSet.getString("email"))
+            .version(resultSet.getLong("version"))
+            .build();
+
+    private static final Comparator<Employee> BY_ID = Comparator.comparingLong(Employee::getId);
+
+    //keeps each IN (...) list well below the bind parameter limits of common databases
+    private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+
+    private final List<NamedParameterJdbcTemplate> shards;
+
+    private final SnowflakeIdGenerator idGenerator;
+
+    //runs the per-shard queries of a scatter-gather in parallel
+    private final ExecutorService scatterExecutor;
+
+    public ShardedEmployeeRepository(List<DataSource> shards, SnowflakeIdGenerator idGenerator,
+                                     ExecutorService scatterExecutor) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shards = shards.stream().map(NamedParameterJdbcTemplate::new).toList();
+        this.idGenerator = idGenerator;
+        this.scatterExecutor = scatterExecutor;
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    //snowflake ids end with a per-millisecond sequence, mixing spreads consecutive ids over all shards
+    int shardOfId(long id) {
+        return Math.floorMod((int) ((id * 0x9E3779B97F4A7C15L) >>> 32), shards.size());
+    }
+
+    int shardOfEmail(String email) {
+        return Math.floorMod(email.hashCode(), shards.size());
+    }
+
+    private JdbcTemplate jdbc(int shard) {
+        return shards.get(shard).getJdbcTemplate();
+    }
+
+    //inserts a new employee with a new id, DuplicateKeyException if the email is taken
+    public Employee insert(Employee employee) {
+        Employee newEmployee = withNewId(employee);
+        claimEmail(newEmployee.getEmail(), newEmployee.getId());
+        try {
+            insertRows(shardOfId(newEmployee.getId()), List.of(newEmployee));
+        } catch (RuntimeException e) {
+            releaseEmail(newEmployee.getEmail(), newEmployee.getId());
+            throw e;
+        }
+        return newEmployee;
+    }
+
+    //inserts the employees whose email is not taken, with one JDBC batch per shard.
+    //Returns the inserted employees with their new ids, and null at the index of a rejected employee
+    public List<Employee> insertAll(List<Employee> employees) {
+        List<Employee> inserted = new ArrayList<>(employees.size());
+        Map<Integer, List<Employee>> rowsByShard = new HashMap<>();
+        try {
+            for (Employee employee : employees) {
+                Employee newEmployee = withNewId(employee);
+                try {
+                    claimEmail(newEmployee.getEmail(), newEmployee.getId());
+                } catch (DuplicateKeyException e) {
+                    inserted.add(null);
+                    continue;
+                }
+                inserted.add(newEmployee);
+                rowsByShard.computeIfAbsent(shardOfId(newEmployee.getId()), shard -> new ArrayList<>()).add(newEmployee);
+            }
+            scatter(rowsByShard.keySet(), shard -> {
+                insertRows(shard, rowsByShard.get(shard));
+                return null;
+            });
+        } catch (RuntimeException e) {
+            //some claims or rows may be written, but the caller is told nothing was created: undo everything
+            for (Employee employee : inserted) {
+                if (employee == null) {
+                    continue;
+                }
+                try {
+                    jdbc(shardOfId(employee.getId())).update("delete from employees where id = ?", employee.getId());
+                    releaseEmail(employee.getEmail(), employee.getId());
+                } catch (RuntimeException undoFailure) {
+                    e.addSuppressed(undoFailure);
+                }
+            }
+            throw e;
+        }
+        return inserted;
+    }
+
+    private Employee withNewId(Employee employee) {
+        return Employee.builder()
+                .id(idGenerator.nextId())
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email(employee.getEmail())
+                .version(0)
+                .build();
+    }
+
+    private void insertRows(int shard, List<Employee> employees) {
+        jdbc(shard).batchUpdate("insert into employees (" + COLUMNS + ") values (?, ?, ?, ?, ?)", employees,
+                employees.size(), (statement, employee) -> {
+                    statement.setLong(1, employee.getId());
+                    statement.setString(2, employee.getFirstName());
+                    statement.setString(3, employee.getLastName());
+                    statement.setString(4, employee.getEmail());
+                    statement.setLong(5, employee.getVersion());
+                });
+    }
+
+    private void claimEmail(String email, long employeeId) {
+        jdbc(shardOfEmail(email)).update("insert into employee_emails (email, employee_id) values (?, ?)",
+                email, employeeId);
+    }
+
+    //only the owner's claim is removed, a claim taken over by another employee meanwhile stays
+    private void releaseEmail(String email, long employeeId) {
+        jdbc(shardOfEmail(email)).update("delete from employee_emails where email = ? and employee_id = ?",
+                email, employeeId);
+    }
+
+    public Optional<Employee> findById(long id) {
+        return jdbc(shardOfId(id)).query("select " + COLUMNS + " from employees where id = ?", EMPLOYEE_ROW_MAPPER, id)
+                .stream().findFirst();
+    }
+
+    //the email shard knows the id, the id shard has the row
+    public Optional<Employee> findByEmail(String email) {
+        List<Long> ids = jdbc(shardOfEmail(email)).queryForList(
+                "select employee_id from employee_emails where email = ?", Long.class, email);
+        if (ids.isEmpty()) {
+            return Optional.empty();
+        }
+        //a claim without a row: the insert of its employee is still running or failed
+        return findById(ids.get(0)).filter(employee -> email.equals(employee.getEmail()));
+    }
+
+    //one query per shard that has some of the ids, in parallel
+    public List<Employee> findAllById(Collection<Long> ids) {
+        Map<Integer, List<Long>> idsByShard = new HashMap<>();
+        for (Long id : ids) {
+            idsByShard.computeIfAbsent(shardOfId(id), shard -> new ArrayList<>()).add(id);
+        }
+        List<List<Employee>> rowsPerShard = scatter(idsByShard.keySet(), shard -> {
+            List<Long> shardIds = idsByShard.get(shard);
+            List<Employee> rows = new ArrayList<>(shardIds.size());
+            for (int from = 0; from < shardIds.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+                List<Long> chunk = shardIds.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, shardIds.size()));
+                rows.addAll(shards.get(shard).query("select " + COLUMNS + " from employees where id in (:ids)",
+                        new MapSqlParameterSource("ids", chunk), EMPLOYEE_ROW_MAPPER));
+            }
+            return rows;
+        });
+        return rowsPerShard.stream().flatMap(List::stream).toList();
+    }
+
+    //every shard sorted by id, merged into one list sorted by id
+    public List<Employee> findAll() {
+        return mergeById(scatter(allShards(), shard -> jdbc(shard).query(
+                "select " + COLUMNS + " from employees order by id", EMPLOYEE_ROW_MAPPER)), Integer.MAX_VALUE);
+    }
+
+    //keyset page over all shards: each shard returns its first limit rows after afterId, the merge keeps the first limit
+    public List<Employee> findAfter(long afterId, int limit) {
+        return mergeById(scatter(allShards(), shard -> jdbc(shard).query(
+                "select " + COLUMNS + " from employees where id > ? order by id limit ?", EMPLOYEE_ROW_MAPPER,
+                afterId, limit)), limit);
+    }
+
+    public List<Employee> findByFirstNameAndLastName(String firstName, String lastName) {
+        return mergeById(scatter(allShards(), shard -> jdbc(shard).query(
+                "select " + COLUMNS + " from employees where first_name = ? and last_name = ? order by id",
+                EMPLOYEE_ROW_MAPPER, firstName, lastName)), Integer.MAX_VALUE);
+    }
+
+    //streams one shard after the other with a cursor, so the rows are only ordered by id within a shard
+    public void forEach(Consumer<Employee> consumer) {
+        for (int shard = 0; shard < shards.size(); shard++) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(jdbc(shard).getDataSource());
+            jdbcTemplate.setFetchSize(500);
+            jdbcTemplate.query("select " + COLUMNS + " from employees",
+                    (RowCallbackHandler) resultSet -> consumer.accept(EMPLOYEE_ROW_MAPPER.mapRow(resultSet, 0)));
+        }
+    }
+
+    //rewrites the row read as current with the given values, only if it still has the version of current.
+    //A changed email is claimed before and the old one released after the update. False if the row has changed
+    public boolean update(Employee current, Employee changes) {
+        boolean emailChanged = !current.getEmail().equals(changes.getEmail());
+        if (emailChanged) {
+            claimEmail(changes.getEmail(), current.getId());
+        }
+        int updatedRows;
+        try {
+            updatedRows = jdbc(shardOfId(current.getId())).update(
+                    "update employees set first_name = ?, last_name = ?, email = ?, version = version + 1 "
+                            + "where id = ? and version = ?",
+                    changes.getFirstName(), changes.getLastName(), changes.getEmail(), current.getId(), current.getVersion());
+        } catch (RuntimeException e) {
+            if (emailChanged) {
+                releaseEmail(changes.getEmail(), current.getId());
+            }
+            throw e;
+        }
+        if (emailChanged) {
+            releaseEmail(updatedRows > 0 ? current.getEmail() : changes.getEmail(), current.getId());
+        }
+        return updatedRows > 0;
+    }
+
+    //the claims are released by employee id on every shard: the email read before the delete may have changed meanwhile
+    public boolean deleteById(long id) {
+        int deletedRows = jdbc(shardOfId(id)).update("delete from employees where id = ?", id);
+        if (deletedRows == 0) {
+            return false;
+        }
+        scatter(allShards(), shard -> jdbc(shard).update("delete from employee_emails where employee_id = ?", id));
+        return true;
+    }
+
+    //the watermarks of all shards added up
+    public EmployeesVersion findEmployeesVersion() {
+        List<EmployeesVersion> versions = scatter(allShards(), shard -> jdbc(shard).queryForObject(
+                "select count(*), coalesce(max(id), 0), coalesce(sum(version), 0) from employees",
+                (resultSet, rowNumber) -> new EmployeesVersion(resultSet.getLong(1), resultSet.getLong(2),
+                        resultSet.getLong(3))));
+        long rowCount = 0;
+        long maxId = 0;
+        long versionSum = 0;
+        for (EmployeesVersion version : versions) {
+            rowCount += version.getRowCount();
+            maxId = Math.max(maxId, version.getMaxId());
+            versionSum += version.getVersionSum();
+        }
+        return new EmployeesVersion(rowCount, maxId, versionSum);
+    }
+
+    private List<Integer> allShards() {
+        List<Integer> all = new ArrayList<>(shards.size());
+        for (int shard = 0; shard < shards.size(); shard++) {
+            all.add(shard);
+        }
+        return all;
+    }
+
+    //runs the query on the given shards in parallel and waits for all of them
+    private <T> List<T> scatter(Collection<Integer> shardIndexes, Function<Integer, T> query) {
+        List<CompletableFuture<T>> futures = shardIndexes.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> query.apply(shard), scatterExecutor))
+                .toList();
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            //the caller sees the exception of the shard, e.g. a DuplicateKeyException
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    //k-way merge of lists sorted by id, stops after limit rows
+    static List<Employee> mergeById(List<List<Employee>> sortedLists, int limit) {
+        record Cursor(List<Employee> rows, int position) {
+            Employee current() {
+                return rows.get(position);
+            }
+        }
+        PriorityQueue<Cursor> cursors = new PriorityQueue<>(Comparator.comparing(Cursor::current, BY_ID));
+        int total = 0;
+        for (List<Employee> rows : sortedLists) {
+            if (!rows.isEmpty()) {
+                cursors.add(new Cursor(rows, 0));
+                total += rows.size();
+            }
+        }
+        List<Employee> merged = new ArrayList<>(Math.min(total, limit));
+        while (!cursors.isEmpty() && merged.size() < limit) {
+            Cursor cursor = cursors.poll();
+            merged.add(cursor.current());
+            if (cursor.position() + 1 < cursor.rows().size()) {
+                cursors.add(new Cursor(cursor.rows(), cursor.position() + 1));
+            }
+        }
+        return merged;
+    }
+}
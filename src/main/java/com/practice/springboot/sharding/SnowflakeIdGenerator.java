@@ -0,0 +1,65 @@
+package com.practice.springboot.sharding;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/*Globally unique 63 bit ids without a database round-trip, in the layout of Twitter's Snowflake:
+* 41 bits of milliseconds since EPOCH (about 69 years), 10 bits of worker id and 12 bits of sequence per millisecond.
+* Every instance that writes has to have its own worker id, then no two instances can produce the same id.
+* Ids grow with time, so ordering by id is still ordering by creation, across all shards.
+* The last timestamp and sequence are one long updated by compare-and-set, so the generator takes no lock.*/
+
+public class SnowflakeIdGenerator {
+
+    static final long EPOCH = Instant.parse("2022-01-01T00:00:00Z").toEpochMilli();
+
+    static final int WORKER_BITS = 10;
+
+    static final int SEQUENCE_BITS = 12;
+
+    public static final int MAX_WORKER_ID = (1 << WORKER_BITS) - 1;
+
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+
+    private final long workerId;
+
+    private final LongSupplier clock;
+
+    //timestamp << SEQUENCE_BITS | sequence of the last id
+    private final AtomicLong last = new AtomicLong();
+
+    public SnowflakeIdGenerator(int workerId) {
+        this(workerId, System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(int workerId, LongSupplier clock) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("Worker id must be between 0 and " + MAX_WORKER_ID + ": " + workerId);
+        }
+        this.workerId = workerId;
+        this.clock = clock;
+    }
+
+    public long nextId() {
+        while (true) {
+            long previous = last.get();
+            long previousTimestamp = previous >>> SEQUENCE_BITS;
+            //a clock that went backwards keeps counting on the last timestamp instead of repeating ids
+            long timestamp = Math.max(clock.getAsLong() - EPOCH, previousTimestamp);
+            long next;
+            if (timestamp > previousTimestamp) {
+                next = timestamp << SEQUENCE_BITS;
+            } else if ((previous & MAX_SEQUENCE) < MAX_SEQUENCE) {
+                next = previous + 1;
+            } else {
+                //4096 ids in one millisecond: borrow the next millisecond
+                next = (previousTimestamp + 1) << SEQUENCE_BITS;
+            }
+            if (last.compareAndSet(previous, next)) {
+                long nextTimestamp = next >>> SEQUENCE_BITS;
+                return nextTimestamp << (WORKER_BITS + SEQUENCE_BITS) | workerId << SEQUENCE_BITS | (next & MAX_SEQUENCE);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.practice.springboot.transfer;
+
+import com.practice.springboot.exception.MalformedEmployeeDataException;
+import com.practice.springboot.model.Employee;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+//reads the layout written by BinaryEmployeeWriter, one block is decoded at a time
+class BinaryEmployeeReader implements EmployeeReader {
+
+    private final ChannelInput in;
+
+    private final long[] ids = new long[BinaryEmployeeWriter.BLOCK_SIZE];
+    private final String[] firstNames = new String[BinaryEmployeeWriter.BLOCK_SIZE];
+    private final String[] lastNames = new String[BinaryEmployeeWriter.BLOCK_SIZE];
+    private final String[] emails = new String[BinaryEmployeeWriter.BLOCK_SIZE];
+
+    private int rows;
+
+    private int next;
+
+    private boolean headerRead;
+
+    private boolean finished;
+
+    BinaryEmployeeReader(ChannelInput in) {
+        this.in = in;
+    }
+
+    @Override
+    public Employee read() throws IOException {
+        if (next == rows) {
+            if (finished || !readBlock()) {
+                return null;
+            }
+        }
+        int row = next++;
+        return Employee.builder()
+                .id(ids[row])
+                .firstName(firstNames[row])
+                .lastName(lastNames[row])
+                .email(emails[row])
+                .build();
+    }
+
+    private boolean readBlock() throws IOException {
+        if (!headerRead) {
+            byte[] magic = in.readBytes(BinaryEmployeeWriter.MAGIC.length);
+            if (!Arrays.equals(magic, BinaryEmployeeWriter.MAGIC)) {
+                throw new MalformedEmployeeDataException("Not a binary employee export");
+            }
+            int version = in.readByte();
+            if (version != BinaryEmployeeWriter.VERSION) {
+                throw new MalformedEmployeeDataException("Unsupported binary employee export version: " + version);
+            }
+            headerRead = true;
+        }
+        long blockRows = in.readVarLong();
+        if (blockRows == 0) {
+            finished = true;
+            return false;
+        }
+        if (blockRows < 0 || blockRows > BinaryEmployeeWriter.BLOCK_SIZE) {
+            throw new MalformedEmployeeDataException("Block of " + blockRows + " rows is larger than " + BinaryEmployeeWriter.BLOCK_SIZE);
+        }
+        rows = (int) blockRows;
+        next = 0;
+        long id = 0;
+        for (int i = 0; i < rows; i++) {
+            long zigzag = in.readVarLong();
+            id += (zigzag >>> 1) ^ -(zigzag & 1);
+            ids[i] = id;
+        }
+        readStrings(firstNames);
+        readStrings(lastNames);
+        readStrings(emails);
+        return true;
+    }
+
+    private void readStrings(String[] column) throws IOException {
+        for (int i = 0; i < rows; i++) {
+            //0 is null, otherwise the byte length plus one
+            long length = in.readVarLong();
+            if (length < 0 || length - 1 > MAX_FIELD_BYTES) {
+                throw new MalformedEmployeeDataException("Field of " + Long.toUnsignedString(length - 1) + " bytes is longer than " + MAX_FIELD_BYTES);
+            }
+            column[i] = length == 0 ? null : new String(in.readBytes((int) (length - 1)), StandardCharsets.UTF_8);
+        }
+    }
+}
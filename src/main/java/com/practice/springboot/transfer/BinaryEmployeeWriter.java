@@ -0,0 +1,94 @@
+package com.practice.springboot.transfer;
+
+import com.practice.springboot.model.Employee;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/*Block columnar layout:
+*   "EMPB" version
+*   block*: rowCount, ids as zigzag deltas, then the firstName, lastName and email columns
+*   0 (empty block = end)
+* Numbers are LEB128 varints, a string is its UTF-8 length + 1 and its bytes, 0 stands for null.
+* Rows exported in id order have deltas of 1, so an id takes one byte.*/
+
+class BinaryEmployeeWriter implements EmployeeWriter {
+
+    static final byte[] MAGIC = {'E', 'M', 'P', 'B'};
+
+    static final int VERSION = 1;
+
+    //rows kept in memory before a block is written
+    static final int BLOCK_SIZE = 4096;
+
+    private final ChannelOutput out;
+
+    private final Employee[] block = new Employee[BLOCK_SIZE];
+
+    private int rows;
+
+    private boolean headerWritten;
+
+    BinaryEmployeeWriter(ChannelOutput out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(Employee employee) throws IOException {
+        block[rows++] = employee;
+        if (rows == BLOCK_SIZE) {
+            writeBlock();
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (rows > 0) {
+            writeBlock();
+        }
+        writeHeaderOnce();
+        out.writeVarLong(0);
+        out.flush();
+    }
+
+    private void writeHeaderOnce() throws IOException {
+        if (!headerWritten) {
+            out.writeBytes(MAGIC);
+            out.writeByte(VERSION);
+            headerWritten = true;
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        writeHeaderOnce();
+        out.writeVarLong(rows);
+        long previousId = 0;
+        for (int i = 0; i < rows; i++) {
+            long delta = block[i].getId() - previousId;
+            out.writeVarLong((delta << 1) ^ (delta >> 63));
+            previousId = block[i].getId();
+        }
+        for (int i = 0; i < rows; i++) {
+            writeString(block[i].getFirstName());
+        }
+        for (int i = 0; i < rows; i++) {
+            writeString(block[i].getLastName());
+        }
+        for (int i = 0; i < rows; i++) {
+            writeString(block[i].getEmail());
+        }
+        Arrays.fill(block, 0, rows, null);
+        rows = 0;
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            out.writeVarLong(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeVarLong(bytes.length + 1L);
+        out.writeBytes(bytes);
+    }
+}
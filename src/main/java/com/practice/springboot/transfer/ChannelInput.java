@@ -0,0 +1,71 @@
+package com.practice.springboot.transfer;
+
+import com.practice.springboot.exception.MalformedEmployeeDataException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+//buffered reads from a channel, the buffer is refilled whenever it is used up
+class ChannelInput {
+
+    private final ReadableByteChannel channel;
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(ChannelOutput.BUFFER_SIZE).flip();
+
+    ChannelInput(ReadableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    //the next byte as 0-255, or -1 at the end of the channel
+    int read() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    int readByte() throws IOException {
+        int value = read();
+        if (value < 0) {
+            throw new MalformedEmployeeDataException("Unexpected end of employee data");
+        }
+        return value;
+    }
+
+    byte[] readBytes(int length) throws IOException {
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            if (!buffer.hasRemaining() && !fill()) {
+                throw new MalformedEmployeeDataException("Unexpected end of employee data");
+            }
+            int chunk = Math.min(buffer.remaining(), length - offset);
+            buffer.get(bytes, offset, chunk);
+            offset += chunk;
+        }
+        return bytes;
+    }
+
+    long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new MalformedEmployeeDataException("Malformed variable length number in employee data");
+    }
+
+    private boolean fill() throws IOException {
+        buffer.clear();
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        buffer.flip();
+        return read > 0;
+    }
+}
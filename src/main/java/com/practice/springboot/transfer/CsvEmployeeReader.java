@@ -0,0 +1,112 @@
+package com.practice.springboot.transfer;
+
+import com.practice.springboot.exception.MalformedEmployeeDataException;
+import com.practice.springboot.model.Employee;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/*Streaming RFC 4180 parser, one record is read at a time.
+* The delimiters are ASCII and never part of a multi-byte UTF-8 character,
+* so the bytes are split first and each field is decoded on its own.
+* Columns are matched by the names of the header row, an id column is skipped: imports do not keep ids.*/
+
+class CsvEmployeeReader implements EmployeeReader {
+
+    private final ChannelInput in;
+
+    private final ByteArrayOutputStream field = new ByteArrayOutputStream(64);
+
+    private int firstNameColumn = -1;
+    private int lastNameColumn = -1;
+    private int emailColumn = -1;
+
+    private boolean headerRead;
+
+    CsvEmployeeReader(ChannelInput in) {
+        this.in = in;
+    }
+
+    @Override
+    public Employee read() throws IOException {
+        if (!headerRead) {
+            readHeader();
+        }
+        List<String> record = readRecord();
+        if (record == null) {
+            return null;
+        }
+        return Employee.builder()
+                .firstName(column(record, firstNameColumn))
+                .lastName(column(record, lastNameColumn))
+                .email(column(record, emailColumn))
+                .build();
+    }
+
+    private void readHeader() throws IOException {
+        headerRead = true;
+        List<String> header = readRecord();
+        if (header == null) {
+            return;
+        }
+        firstNameColumn = header.indexOf("firstName");
+        lastNameColumn = header.indexOf("lastName");
+        emailColumn = header.indexOf("email");
+        if (firstNameColumn < 0 || lastNameColumn < 0 || emailColumn < 0) {
+            throw new MalformedEmployeeDataException("CSV header must contain firstName, lastName and email: " + header);
+        }
+    }
+
+    private static String column(List<String> record, int column) {
+        return column >= 0 && column < record.size() ? record.get(column) : null;
+    }
+
+    //the fields of the next record, or null at the end of the input
+    private List<String> readRecord() throws IOException {
+        int b = in.read();
+        //blank lines and the \n of a \r\n line end
+        while (b == '\r' || b == '\n') {
+            b = in.read();
+        }
+        if (b < 0) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>(4);
+        while (true) {
+            field.reset();
+            if (b == '"') {
+                while (true) {
+                    int c = in.readByte();
+                    if (c == '"') {
+                        b = in.read();
+                        if (b != '"') {
+                            break;
+                        }
+                    }
+                    write(c);
+                }
+                fields.add(field.toString(StandardCharsets.UTF_8));
+            } else {
+                while (b >= 0 && b != ',' && b != '\n' && b != '\r') {
+                    write(b);
+                    b = in.read();
+                }
+                fields.add(field.size() == 0 ? null : field.toString(StandardCharsets.UTF_8));
+            }
+            if (b != ',') {
+                return fields;
+            }
+            b = in.read();
+        }
+    }
+
+    private void write(int b) throws MalformedEmployeeDataException {
+        if (field.size() == MAX_FIELD_BYTES) {
+            throw new MalformedEmployeeDataException("Field is longer than " + MAX_FIELD_BYTES + " bytes");
+        }
+        field.write(b);
+    }
+}
@@ -0,0 +1,60 @@
+package com.practice.springboot.transfer;
+
+import com.practice.springboot.model.Employee;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+//one CSV line per employee, fields are only quoted when they need it
+class CsvEmployeeWriter implements EmployeeWriter {
+
+    static final String HEADER = "id,firstName,lastName,email";
+
+    private final ChannelOutput out;
+
+    private boolean headerWritten;
+
+    CsvEmployeeWriter(ChannelOutput out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(Employee employee) throws IOException {
+        writeHeaderOnce();
+        out.writeBytes(Long.toString(employee.getId()).getBytes(StandardCharsets.US_ASCII));
+        out.writeByte(',');
+        writeField(employee.getFirstName());
+        out.writeByte(',');
+        writeField(employee.getLastName());
+        out.writeByte(',');
+        writeField(employee.getEmail());
+        out.writeByte('\n');
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writeHeaderOnce();
+        out.flush();
+    }
+
+    private void writeHeaderOnce() throws IOException {
+        if (!headerWritten) {
+            out.writeBytes((HEADER + "\n").getBytes(StandardCharsets.US_ASCII));
+            headerWritten = true;
+        }
+    }
+
+    //null is an empty field, an empty string is "" so the two can be told apart on import
+    private void writeField(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (!value.isEmpty() && value.chars().noneMatch(c -> c == ',' || c == '"' || c == '\n' || c == '\r')) {
+            out.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        out.writeByte('"');
+        out.writeBytes(value.replace("\"", "\"\"").getBytes(StandardCharsets.UTF_8));
+        out.writeByte('"');
+    }
+}
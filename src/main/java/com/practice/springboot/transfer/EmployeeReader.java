@@ -0,0 +1,14 @@
+package com.practice.springboot.transfer;
+
+import com.practice.springboot.model.Employee;
+
+import java.io.IOException;
+
+//reads employees one by one from an export, read() returns null after the last one
+public interface EmployeeReader {
+
+    //the columns are varchar(255), four bytes is the longest UTF-8 encoding of a character
+    int MAX_FIELD_BYTES = 255 * 4;
+
+    Employee read() throws IOException;
+}
@@ -0,0 +1,11 @@
+package com.practice.springboot.transfer;
+
+import com.practice.springboot.model.Employee;
+
+import java.io.IOException;
+
+//writes employees one by one in an export format, finish() has to be called after the last one
+public interface EmployeeWriter {
+    void write(Employee employee) throws IOException;
+    void finish() throws IOException;
+}
@@ -0,0 +1,61 @@
+package com.practice.springboot.transfer;
+
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Locale;
+
+//formats of the employees export and import
+public enum TransferFormat {
+
+    //RFC 4180 CSV with a header row, readable by spreadsheets and databases
+    CSV("text/csv", "csv") {
+        @Override
+        public EmployeeWriter writer(WritableByteChannel channel) {
+            return new CsvEmployeeWriter(new ChannelOutput(channel));
+        }
+
+        @Override
+        public EmployeeReader reader(ReadableByteChannel channel) {
+            return new CsvEmployeeReader(new ChannelInput(channel));
+        }
+    },
+
+    //column blocks with delta encoded ids, smaller and faster to parse than CSV
+    BINARY("application/octet-stream", "bin") {
+        @Override
+        public EmployeeWriter writer(WritableByteChannel channel) {
+            return new BinaryEmployeeWriter(new ChannelOutput(channel));
+        }
+
+        @Override
+        public EmployeeReader reader(ReadableByteChannel channel) {
+            return new BinaryEmployeeReader(new ChannelInput(channel));
+        }
+    };
+
+    private final String contentType;
+
+    private final String fileExtension;
+
+    TransferFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    public abstract EmployeeWriter writer(WritableByteChannel channel);
+
+    public abstract EmployeeReader reader(ReadableByteChannel channel);
+
+    //accepts the name in any case, throws IllegalArgumentException for an unknown format
+    public static TransferFormat of(String name) {
+        return valueOf(name.toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,249 @@
+package com.practice.springboot.wire;
+
+import com.practice.springboot.model.Employee;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/*Protobuf wire encoding of the messages in employee.proto, written by hand:
+* four fields do not justify protoc in the build and a second, generated Employee class.
+* A field is a varint key (number << 3 | wire type) followed by a varint or a length-prefixed byte string.
+* Fields with their default value (0, null or "") are left out, unknown fields are skipped when reading.
+* The version is not encoded, like in JSON it travels as the ETag header.*/
+
+public final class EmployeeProtobuf {
+
+    public static final String APPLICATION_PROTOBUF_VALUE = "application/x-protobuf";
+
+    public static final MediaType APPLICATION_PROTOBUF = MediaType.parseMediaType(APPLICATION_PROTOBUF_VALUE);
+
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_FIXED64 = 1;
+    private static final int WIRE_LENGTH_DELIMITED = 2;
+    private static final int WIRE_FIXED32 = 5;
+
+    //Employee
+    private static final int ID = 1;
+    private static final int FIRST_NAME = 2;
+    private static final int LAST_NAME = 3;
+    private static final int EMAIL = 4;
+
+    //EmployeeList
+    private static final int EMPLOYEES = 1;
+
+    private EmployeeProtobuf() {
+    }
+
+    //one Employee message without a length prefix
+    public static byte[] encode(Employee employee) {
+        byte[] firstName = utf8(employee.getFirstName());
+        byte[] lastName = utf8(employee.getLastName());
+        byte[] email = utf8(employee.getEmail());
+        //the size is known up front, so the message is written straight into an array of the right length
+        int size = (employee.getId() != 0 ? 1 + varintSize(employee.getId()) : 0)
+                + stringFieldSize(firstName) + stringFieldSize(lastName) + stringFieldSize(email);
+        Encoder encoder = new Encoder(new byte[size]);
+        if (employee.getId() != 0) {
+            encoder.varint(ID << 3 | WIRE_VARINT);
+            encoder.varint(employee.getId());
+        }
+        encoder.stringField(FIRST_NAME, firstName);
+        encoder.stringField(LAST_NAME, lastName);
+        encoder.stringField(EMAIL, email);
+        return encoder.buffer;
+    }
+
+    //varint length followed by the message, the framing of protobuf's writeDelimitedTo
+    public static void writeDelimited(Employee employee, OutputStream out) throws IOException {
+        byte[] message = encode(employee);
+        writeVarint(message.length, out);
+        out.write(message);
+    }
+
+    //an EmployeeList message: every employee is one occurrence of the repeated field
+    public static void writeList(Collection<Employee> employees, OutputStream out) throws IOException {
+        for (Employee employee : employees) {
+            out.write(EMPLOYEES << 3 | WIRE_LENGTH_DELIMITED);
+            writeDelimited(employee, out);
+        }
+    }
+
+    public static Employee decode(byte[] message) {
+        return decode(new Decoder(message, 0, message.length));
+    }
+
+    public static List<Employee> decodeList(byte[] message) {
+        Decoder decoder = new Decoder(message, 0, message.length);
+        List<Employee> employees = new ArrayList<>();
+        while (decoder.hasMore()) {
+            int key = (int) decoder.varint();
+            if (key == (EMPLOYEES << 3 | WIRE_LENGTH_DELIMITED)) {
+                int length = decoder.length();
+                employees.add(decode(new Decoder(message, decoder.position, length)));
+                decoder.position += length;
+            } else {
+                decoder.skip(key & 7);
+            }
+        }
+        return employees;
+    }
+
+    //the next length-delimited Employee of a stream, null at the end of the stream
+    public static Employee readDelimited(InputStream in) throws IOException {
+        long length = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                if (shift == 0) {
+                    return null;
+                }
+                throw new IOException("Truncated protobuf message length");
+            }
+            length |= (long) (b & 0x7F) << shift;
+            if (b < 0x80) {
+                break;
+            }
+        }
+        byte[] message = in.readNBytes(Math.toIntExact(length));
+        if (message.length != length) {
+            throw new IOException("Truncated protobuf message");
+        }
+        return decode(message);
+    }
+
+    private static Employee decode(Decoder decoder) {
+        Employee employee = new Employee();
+        while (decoder.hasMore()) {
+            int key = (int) decoder.varint();
+            switch (key) {
+                case ID << 3 | WIRE_VARINT -> employee.setId(decoder.varint());
+                case FIRST_NAME << 3 | WIRE_LENGTH_DELIMITED -> employee.setFirstName(decoder.string());
+                case LAST_NAME << 3 | WIRE_LENGTH_DELIMITED -> employee.setLastName(decoder.string());
+                case EMAIL << 3 | WIRE_LENGTH_DELIMITED -> employee.setEmail(decoder.string());
+                default -> decoder.skip(key & 7);
+            }
+        }
+        return employee;
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int stringFieldSize(byte[] value) {
+        return value == null || value.length == 0 ? 0 : 1 + varintSize(value.length) + value.length;
+    }
+
+    private static int varintSize(long value) {
+        //a negative int64 always takes the full ten bytes
+        return value < 0 ? 10 : Math.max(1, (63 - Long.numberOfLeadingZeros(value)) / 7 + 1);
+    }
+
+    private static void writeVarint(long value, OutputStream out) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static final class Encoder {
+
+        private final byte[] buffer;
+
+        private int position;
+
+        Encoder(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        void varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void stringField(int field, byte[] value) {
+            if (value == null || value.length == 0) {
+                return;
+            }
+            varint(field << 3 | WIRE_LENGTH_DELIMITED);
+            varint(value.length);
+            System.arraycopy(value, 0, buffer, position, value.length);
+            position += value.length;
+        }
+    }
+
+    private static final class Decoder {
+
+        private final byte[] buffer;
+
+        private int position;
+
+        private final int end;
+
+        Decoder(byte[] buffer, int offset, int length) {
+            if (offset + length > buffer.length) {
+                throw new IllegalArgumentException("Truncated protobuf message");
+            }
+            this.buffer = buffer;
+            this.position = offset;
+            this.end = offset + length;
+        }
+
+        boolean hasMore() {
+            return position < end;
+        }
+
+        long varint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= end) {
+                    throw new IllegalArgumentException("Truncated protobuf varint");
+                }
+                byte b = buffer[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed protobuf varint");
+        }
+
+        int length() {
+            long length = varint();
+            if (length < 0 || length > end - position) {
+                throw new IllegalArgumentException("Truncated protobuf field");
+            }
+            return (int) length;
+        }
+
+        String string() {
+            int length = length();
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        void skip(int wireType) {
+            switch (wireType) {
+                case WIRE_VARINT -> varint();
+                case WIRE_FIXED64 -> position += 8;
+                case WIRE_LENGTH_DELIMITED -> position += length();
+                case WIRE_FIXED32 -> position += 4;
+                default -> throw new IllegalArgumentException("Unsupported protobuf wire type " + wireType);
+            }
+            if (position > end) {
+                throw new IllegalArgumentException("Truncated protobuf field");
+            }
+        }
+    }
+}
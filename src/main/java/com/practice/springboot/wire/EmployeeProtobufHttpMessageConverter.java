@@ -0,0 +1,84 @@
+package com.practice.springboot.wire;
+
+import com.practice.springboot.model.Employee;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+
+//reads and writes an Employee or a list of employees as application/x-protobuf, other bodies are left to JSON
+public class EmployeeProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public EmployeeProtobufHttpMessageConverter() {
+        super(EmployeeProtobuf.APPLICATION_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Employee.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return isEmployeeOrList(type) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return (type != null ? isEmployeeOrList(type) : supports(clazz)) && canWrite(mediaType);
+    }
+
+    //asked with the class of the returned value, e.g. the List.of implementation; the element type was checked by canWrite
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return clazz == Employee.class || Collection.class.isAssignableFrom(clazz)
+                ? getSupportedMediaTypes()
+                : List.of();
+    }
+
+    private static boolean isEmployeeOrList(Type type) {
+        ResolvableType resolvableType = ResolvableType.forType(type);
+        Class<?> clazz = resolvableType.resolve();
+        if (clazz == Employee.class) {
+            return true;
+        }
+        return clazz != null && Collection.class.isAssignableFrom(clazz) && clazz.isAssignableFrom(List.class)
+                && resolvableType.asCollection().resolveGeneric(0) == Employee.class;
+    }
+
+    private static boolean isList(Type type) {
+        return ResolvableType.forType(type).resolve() != Employee.class;
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        byte[] body = inputMessage.getBody().readAllBytes();
+        try {
+            return isList(type) ? EmployeeProtobuf.decodeList(body) : EmployeeProtobuf.decode(body);
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException("Invalid protobuf body: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        if (body instanceof Employee employee) {
+            outputMessage.getBody().write(EmployeeProtobuf.encode(employee));
+        } else {
+            EmployeeProtobuf.writeList((Collection<Employee>) body, outputMessage.getBody());
+        }
+    }
+}
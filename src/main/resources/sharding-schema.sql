@@ -0,0 +1,19 @@
+-- schema of every shard, run on startup by ShardingConfig
+create table if not exists employees (
+    id bigint not null,
+    email varchar(255) not null,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    version bigint not null,
+    primary key (id)
+);
+create index if not exists idx_employees_last_name_first_name on employees (last_name, first_name);
+
+-- an email is claimed on the shard its hash points to, the primary key keeps it unique across all shards
+create table if not exists employee_emails (
+    email varchar(255) not null,
+    employee_id bigint not null,
+    primary key (email)
+);
+-- claims are released by employee id when the employee is deleted
+create index if not exists idx_employee_emails_employee_id on employee_emails (employee_id);
@@ -0,0 +1,125 @@
+package com.practice.springboot.cache;
+
+import com.practice.springboot.config.EmployeeProperties;
+import com.practice.springboot.model.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeCacheTests {
+
+    private EmployeeCache employeeCache;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup() {
+        employeeCache = new EmployeeCache(new EmployeeProperties());
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("John")
+                .lastName("Cena")
+                .email("john@gmail.com")
+                .build();
+    }
+
+    //JUnit test for getById and getByEmail after put
+    @DisplayName("JUnit test for getById and getByEmail after put")
+    @Test
+    public void givenCachedEmployee_whenGetByIdAndEmail_thenReturnEmployeeObject() {
+        //given - precondition or setup
+        employeeCache.put(employee);
+
+        //when - action or the behavior we are testing
+        Optional<Employee> byId = employeeCache.getById(1L);
+        Optional<Employee> byEmail = employeeCache.getByEmail("john@gmail.com");
+
+        //then - verify the output
+        assertThat(byId).isPresent();
+        assertThat(byEmail).isPresent();
+        assertThat(byId.get().getEmail()).isEqualTo("john@gmail.com");
+        assertThat(employeeCache.stats().hitCount()).isEqualTo(2);
+    }
+
+    //JUnit test for putLoaded - a row loaded before a write is not cached after it
+    @DisplayName("JUnit test for putLoaded racing a write")
+    @Test
+    public void givenWriteDuringLoad_whenPutLoaded_thenEmployeeIsNotCached() {
+        //given - precondition or setup
+        long idStamp = employeeCache.loadStamp(1L);
+        long stamp = employeeCache.loadStamp();
+        long otherIdStamp = employeeCache.loadStamp(2L);
+        //the write commits while the loads are still running
+        employeeCache.evict(1L);
+
+        //when - action or the behavior we are testing
+        employeeCache.putLoaded(employee, idStamp, true);
+        employeeCache.putLoaded(employee, stamp, false);
+        Employee other = Employee.builder().id(2L).firstName("Will").lastName("Smith").email("will@gmail.com").build();
+        employeeCache.putLoaded(other, otherIdStamp, true);
+
+        //then - verify the output
+        assertThat(employeeCache.getById(1L)).isEmpty();
+        assertThat(employeeCache.getByEmail("john@gmail.com")).isEmpty();
+        //a write to another employee does not keep this one out
+        assertThat(employeeCache.getById(2L)).isPresent();
+        employeeCache.putLoaded(employee, employeeCache.loadStamp(1L), true);
+        assertThat(employeeCache.getById(1L)).isPresent();
+    }
+
+    //JUnit test for returned copies - changing the returned object does not change the cache
+    @DisplayName("JUnit test for returned copies")
+    @Test
+    public void givenCachedEmployee_whenReturnedObjectIsChanged_thenCacheIsUnchanged() {
+        //given - precondition or setup
+        employeeCache.put(employee);
+
+        //when - action or the behavior we are testing
+        employeeCache.getById(1L).get().setFirstName("Johnson");
+        employee.setFirstName("Johnson");
+
+        //then - verify the output
+        assertThat(employeeCache.getById(1L).get().getFirstName()).isEqualTo("John");
+    }
+
+    //JUnit test for put with a changed email - old email is no longer cached
+    @DisplayName("JUnit test for put with a changed email")
+    @Test
+    public void givenCachedEmployee_whenPutWithNewEmail_thenOldEmailIsEvicted() {
+        //given - precondition or setup
+        employeeCache.put(employee);
+        Employee updatedEmployee = Employee.builder()
+                .id(1L)
+                .firstName("John")
+                .lastName("Cena")
+                .email("cena@gmail.com")
+                .build();
+
+        //when - action or the behavior we are testing
+        employeeCache.put(updatedEmployee);
+
+        //then - verify the output
+        assertThat(employeeCache.getByEmail("john@gmail.com")).isEmpty();
+        assertThat(employeeCache.getByEmail("cena@gmail.com")).isPresent();
+    }
+
+    //JUnit test for evict - both the id and the email entry are removed
+    @DisplayName("JUnit test for evict")
+    @Test
+    public void givenCachedEmployee_whenEvict_thenIdAndEmailAreEvicted() {
+        //given - precondition or setup
+        employeeCache.put(employee);
+
+        //when - action or the behavior we are testing
+        employeeCache.evict(1L);
+
+        //then - verify the output
+        assertThat(employeeCache.getById(1L)).isEmpty();
+        assertThat(employeeCache.getByEmail("john@gmail.com")).isEmpty();
+        assertThat(employeeCache.stats().missCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,92 @@
+package com.practice.springboot.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SingleFlightTests {
+
+    private Counter coalesced;
+
+    private SingleFlight<Long, String> singleFlight;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setup() {
+        coalesced = new SimpleMeterRegistry().counter("coalesced");
+        singleFlight = new SingleFlight<>(coalesced);
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    //JUnit test for execute - a concurrent call for the same key shares the running load
+    @DisplayName("JUnit test for execute with concurrent calls for the same key")
+    @Test
+    public void givenRunningLoad_whenExecuteSameKey_thenLoaderRunsOnce() throws Exception {
+        //given - precondition or setup
+        //the first load blocks until the second caller is waiting for it
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Future<String> leader = executor.submit(() -> singleFlight.execute(1L, () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return "John";
+        }));
+        loading.await(5, TimeUnit.SECONDS);
+
+        //when - action or the behavior we are testing
+        Future<String> follower = executor.submit(() -> singleFlight.execute(1L, () -> {
+            loads.incrementAndGet();
+            return "other";
+        }));
+        //the follower counts itself as coalesced before it starts waiting
+        while (coalesced.count() == 0) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        //then - verify the output
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("John");
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("John");
+        assertThat(loads.get()).isEqualTo(1);
+        //the key is forgotten once the load is done, the next call loads again
+        assertThat(singleFlight.execute(1L, () -> "Will")).isEqualTo("Will");
+    }
+
+    //JUnit test for execute - the exception of the load is thrown to the caller
+    @DisplayName("JUnit test for execute with a failing load")
+    @Test
+    public void givenFailingLoader_whenExecute_thenThrowsExceptionAndForgetsKey() {
+        //when - action or the behavior we are testing
+        Assertions.assertThrows(IllegalStateException.class, () -> singleFlight.execute(1L, () -> {
+            throw new IllegalStateException("database down");
+        }));
+
+        //then - verify the output
+        assertThat(singleFlight.execute(1L, () -> "John")).isEqualTo("John");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
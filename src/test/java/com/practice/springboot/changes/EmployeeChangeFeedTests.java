@@ -0,0 +1,105 @@
+package com.practice.springboot.changes;
+
+import com.practice.springboot.config.EmployeeProperties;
+import com.practice.springboot.model.Employee;
+import com.practice.springboot.model.EmployeeChangeEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeChangeFeedTests {
+
+    private EmployeeChangeFeed employeeChangeFeed;
+
+    @BeforeEach
+    public void setup() {
+        EmployeeProperties employeeProperties = new EmployeeProperties();
+        employeeProperties.getChanges().setBufferSize(4);
+        employeeChangeFeed = new EmployeeChangeFeed(employeeProperties);
+    }
+
+    private static Employee employee(long id) {
+        return Employee.builder().id(id).firstName("John").lastName("Cena").email("john" + id + "@gmail.com").build();
+    }
+
+    //JUnit test for readAfter - buffered changes are replayed in sequence order
+    @DisplayName("JUnit test for readAfter with buffered changes")
+    @Test
+    public void givenPublishedChanges_whenReadAfter_thenReturnLaterChangesInOrder() {
+        //given - precondition or setup
+        employeeChangeFeed.publish(EmployeeChangeEvent.Type.CREATED, employee(1L));
+        employeeChangeFeed.publish(EmployeeChangeEvent.Type.UPDATED, employee(1L));
+        employeeChangeFeed.publish(EmployeeChangeEvent.Type.DELETED, 1L, null);
+
+        //when - action or the behavior we are testing
+        Optional<List<EmployeeChangeEvent>> changes = employeeChangeFeed.readAfter(1, 10);
+
+        //then - verify the output
+        assertThat(changes).isPresent();
+        assertThat(changes.get()).extracting(EmployeeChangeEvent::getSequence).containsExactly(2L, 3L);
+        assertThat(changes.get()).extracting(EmployeeChangeEvent::getType)
+                .containsExactly(EmployeeChangeEvent.Type.UPDATED, EmployeeChangeEvent.Type.DELETED);
+        assertThat(employeeChangeFeed.readAfter(3, 10)).contains(List.of());
+    }
+
+    //JUnit test for readAfter - a sequence that was overwritten needs a resync
+    @DisplayName("JUnit test for readAfter with overwritten changes")
+    @Test
+    public void givenMoreChangesThanBuffered_whenReadAfterOldSequence_thenReturnEmpty() {
+        //given - precondition or setup
+        for (long id = 1; id <= 6; id++) {
+            employeeChangeFeed.publish(EmployeeChangeEvent.Type.CREATED, employee(id));
+        }
+
+        //when - action or the behavior we are testing
+        Optional<List<EmployeeChangeEvent>> evicted = employeeChangeFeed.readAfter(1, 10);
+        Optional<List<EmployeeChangeEvent>> buffered = employeeChangeFeed.readAfter(2, 10);
+
+        //then - verify the output
+        assertThat(evicted).isEmpty();
+        assertThat(buffered.orElseThrow()).extracting(EmployeeChangeEvent::getSequence).containsExactly(3L, 4L, 5L, 6L);
+    }
+
+    //JUnit test for readAfter - a sequence from before a restart lies ahead of the feed
+    @DisplayName("JUnit test for readAfter with a sequence ahead of the feed")
+    @Test
+    public void givenSequenceAheadOfFeed_whenReadAfter_thenReturnEmpty() {
+        //given - precondition or setup
+        employeeChangeFeed.publish(EmployeeChangeEvent.Type.CREATED, employee(1L));
+
+        //when - action or the behavior we are testing
+        Optional<List<EmployeeChangeEvent>> changes = employeeChangeFeed.readAfter(42, 10);
+
+        //then - verify the output
+        assertThat(changes).isEmpty();
+    }
+
+    //JUnit test for publish - inside a transaction the change is appended on commit only
+    @DisplayName("JUnit test for publish inside a transaction")
+    @Test
+    public void givenActiveTransaction_whenPublish_thenAppendedAfterCommit() throws InterruptedException {
+        //given - precondition or setup
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            //when - action or the behavior we are testing
+            employeeChangeFeed.publishAll(EmployeeChangeEvent.Type.CREATED, List.of(employee(1L), employee(2L)));
+
+            //then - verify the output
+            assertThat(employeeChangeFeed.getLastSequence()).isZero();
+            assertThat(employeeChangeFeed.awaitAfter(0, 10, TimeUnit.MILLISECONDS)).isFalse();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(employeeChangeFeed.getLastSequence()).isEqualTo(2);
+            assertThat(employeeChangeFeed.awaitAfter(0, 10, TimeUnit.MILLISECONDS)).isTrue();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.practice.springboot.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//boots the application with the production profile, every tuned setting has to be accepted and in effect.
+//The profile does not set the database URL, the one here stands in for the operator's with the H2 tuning appended
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:production;DB_CLOSE_DELAY=-1;QUERY_CACHE_SIZE=64")
+@ActiveProfiles("production")
+public class ProductionProfileTests {
+
+    @Autowired
+    private HikariDataSource dataSource;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    //JUnit test for the production profile - pool, JDBC and Hibernate settings
+    @DisplayName("JUnit test for the production profile settings")
+    @Test
+    public void givenProductionProfile_whenStarted_thenTunedSettingsAreEffective() {
+        //then - verify the output
+        int poolSize = ProductionConfig.poolSize(Runtime.getRuntime().availableProcessors());
+        assertThat(dataSource.getMaximumPoolSize()).isEqualTo(poolSize);
+        assertThat(dataSource.getMinimumIdle()).isEqualTo(poolSize);
+        assertThat(dataSource.getLeakDetectionThreshold()).isEqualTo(30_000);
+        assertThat(entityManagerFactory.getProperties())
+                .containsEntry("hibernate.jdbc.batch_size", 100)
+                .containsEntry("hibernate.order_updates", "true")
+                .containsEntry("hibernate.query.in_clause_parameter_padding", "true");
+        assertThat(jdbcTemplate.queryForObject(
+                "select setting_value from information_schema.settings where setting_name = 'QUERY_CACHE_SIZE'",
+                String.class)).isEqualTo("64");
+    }
+}
@@ -0,0 +1,47 @@
+package com.practice.springboot.config;
+
+import com.practice.springboot.exception.ResourceNotFoundException;
+import com.practice.springboot.model.Employee;
+import com.practice.springboot.service.EmployeeService;
+import com.practice.springboot.service.impl.ShardedEmployeeServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//boots the application with sharding enabled, the employee API is then served from the shards
+@SpringBootTest(properties = {
+        "employee.sharding.enabled=true",
+        "employee.sharding.shards[0].url=jdbc:h2:mem:sharding-config-shard0;DB_CLOSE_DELAY=-1",
+        "employee.sharding.shards[1].url=jdbc:h2:mem:sharding-config-shard1;DB_CLOSE_DELAY=-1"
+})
+public class ShardingConfigTests {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    //JUnit test for sharding enabled - the sharded service saves and finds employees
+    @DisplayName("JUnit test for the sharded employee service")
+    @Test
+    public void givenShardingEnabled_whenSaveEmployee_thenEmployeeIsFoundOnTheShards() {
+        //given - precondition or setup
+        Employee employee = Employee.builder().firstName("John").lastName("Cena").email("sharded@gmail.com").build();
+
+        //when - action or the behavior we are testing
+        Employee savedEmployee = employeeService.saveEmployee(employee);
+
+        //then - verify the output
+        assertThat(employeeService).isInstanceOf(ShardedEmployeeServiceImpl.class);
+        assertThat(savedEmployee.getId()).isPositive();
+        assertThat(employeeService.getEmployeeByEmail("sharded@gmail.com")).get()
+                .extracting(Employee::getId).isEqualTo(savedEmployee.getId());
+        assertThat(employeeService.updateEmployee(savedEmployee.getId(),
+                Employee.builder().firstName("Johnny").lastName("Cena").email("sharded@gmail.com").build()))
+                .get().extracting(Employee::getVersion).isEqualTo(1L);
+        assertThatThrownBy(() -> employeeService.saveEmployee(employee)).isInstanceOf(ResourceNotFoundException.class);
+        assertThat(employeeService.deleteEmployee(savedEmployee.getId())).isTrue();
+    }
+}
@@ -0,0 +1,36 @@
+package com.practice.springboot.config;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//boots the application with the startup profile, the faster boot must not cost the batched inserts
+@SpringBootTest
+@ActiveProfiles("startup")
+public class StartupProfileTests {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EmployeeProperties employeeProperties;
+
+    //JUnit test for the startup profile - JDBC batching is still in effect
+    @DisplayName("JUnit test for the startup profile JDBC batching")
+    @Test
+    public void givenStartupProfile_whenStarted_thenJdbcBatchingIsOn() {
+        //when - action or the behavior we are testing
+        int jdbcBatchSize = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getSessionFactoryOptions().getJdbcBatchSize();
+
+        //then - verify the output
+        assertThat(jdbcBatchSize).isEqualTo(employeeProperties.getBatch().getSize()).isPositive();
+    }
+}
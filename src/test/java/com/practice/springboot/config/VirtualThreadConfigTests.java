@@ -0,0 +1,78 @@
+package com.practice.springboot.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.coyote.ProtocolHandler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//boots the application with virtual threads enabled. The tests run on Java 17, which has no virtual threads:
+//a platform thread executor stands in for the virtual thread executor, the wiring around it is the real one
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "employee.threads.virtual=true",
+        "employee.threads.max-db-connections=3",
+        "spring.datasource.hikari.maximum-pool-size=7",
+        "spring.main.allow-bean-definition-overriding=true"
+})
+public class VirtualThreadConfigTests {
+
+    private static final String STAND_IN_THREAD = "stand-in-virtual";
+
+    @TestConfiguration
+    static class StandInExecutorConfig {
+
+        @Bean(destroyMethod = "shutdown")
+        public ExecutorService virtualThreadExecutor() {
+            return Executors.newCachedThreadPool(task -> new Thread(task, STAND_IN_THREAD));
+        }
+    }
+
+    @Autowired
+    private ExecutorService virtualThreadExecutor;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private AsyncTaskExecutor applicationTaskExecutor;
+
+    @Autowired
+    private ServletWebServerApplicationContext webServerApplicationContext;
+
+    @Autowired
+    private HikariDataSource dataSource;
+
+    //JUnit test for virtual threads enabled - Tomcat and Spring MVC's async work run on the executor
+    @DisplayName("JUnit test for the virtual thread executor wiring")
+    @Test
+    public void givenVirtualThreads_whenStarted_thenTomcatAndAsyncWorkUseTheExecutor() throws Exception {
+        //when - action or the behavior we are testing
+        ProtocolHandler protocolHandler = ((TomcatWebServer) webServerApplicationContext.getWebServer())
+                .getTomcat().getConnector().getProtocolHandler();
+        String asyncThread = applicationTaskExecutor.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+
+        //then - verify the output
+        assertThat(protocolHandler.getExecutor()).isSameAs(virtualThreadExecutor);
+        assertThat(asyncThread).isEqualTo(STAND_IN_THREAD);
+    }
+
+    //JUnit test for virtual threads enabled - an explicit pool size is not replaced by max-db-connections
+    @DisplayName("JUnit test for the connection pool size with virtual threads")
+    @Test
+    public void givenExplicitPoolSize_whenVirtualThreads_thenPoolSizeIsKept() {
+        //then - verify the output
+        assertThat(dataSource.getMaximumPoolSize()).isEqualTo(7);
+        assertThat(dataSource.getMinimumIdle()).isNotEqualTo(3);
+    }
+}
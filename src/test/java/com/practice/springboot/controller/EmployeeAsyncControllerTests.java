@@ -0,0 +1,178 @@
+package com.practice.springboot.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.practice.springboot.model.Employee;
+import com.practice.springboot.service.EmployeeAsyncService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(EmployeeAsyncController.class)
+public class EmployeeAsyncControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeAsyncService employeeAsyncService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup() {
+        employee = Employee.builder()
+                .firstName("John")
+                .lastName("Cena")
+                .email("john@gmail.com")
+                .build();
+    }
+
+    //async handlers return right away, the response is only complete after the async dispatch
+    private ResultActions performAsync(MvcResult mvcResult) throws Exception {
+        return mockMvc.perform(asyncDispatch(mvcResult)).andDo(print());
+    }
+
+    //JUnit test for async createEmployee REST api
+    @DisplayName("JUnit test for async createEmployee REST api")
+    @Test
+    public void givenEmployeeObject_whenCreateEmployee_thenReturnSavedEmployee() throws Exception{
+        //given - precondition or setup
+        given(employeeAsyncService.saveEmployee(any(Employee.class)))
+                .willAnswer((invocation) -> CompletableFuture.completedFuture(invocation.getArgument(0)));
+
+        //when - action or the behavior we are testing
+        MvcResult mvcResult = mockMvc.perform(post("/api/async/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //then - validate the response of the rest api
+        performAsync(mvcResult)
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.email", is(employee.getEmail())));
+    }
+
+    //JUnit test for async getAllEmployees REST api
+    @DisplayName("JUnit test for async getAllEmployees REST api")
+    @Test
+    public void givenListOfEmployees_whenGetAllEmployees_thenReturnStreamedEmployeesList() throws Exception{
+        //given - precondition or setup
+        Employee employee2 = Employee.builder()
+                .firstName("Will")
+                .lastName("Smith")
+                .email("will@gmail.com")
+                .build();
+        given(employeeAsyncService.streamAllEmployees(any())).willAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            consumer.accept(employee);
+            consumer.accept(employee2);
+            return CompletableFuture.completedFuture(null);
+        });
+
+        //when - action or the behavior we are testing
+        MvcResult mvcResult = mockMvc.perform(get("/api/async/employees"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //then - verify the output
+        performAsync(mvcResult)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[1].email", is(employee2.getEmail())));
+    }
+
+    //JUnit test for async getEmployeeById REST api - positive scenario
+    @DisplayName("JUnit test for async getEmployeeById REST api - positive scenario")
+    @Test
+    public void givenEmployeeId_whenGetEmployeeById_thenReturnsEmployeeObject() throws Exception{
+        //given - precondition or setup
+        long employeeId = 1L;
+        given(employeeAsyncService.getEmployeeById(employeeId))
+                .willReturn(CompletableFuture.completedFuture(Optional.of(employee)));
+
+        //when - action or the behavior we are testing
+        MvcResult mvcResult = mockMvc.perform(get("/api/async/employees/{id}", employeeId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //then - verify the output
+        performAsync(mvcResult)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName", is(employee.getFirstName())));
+    }
+
+    //JUnit test for async getEmployeeById REST api - negative scenario
+    @DisplayName("JUnit test for async getEmployeeById REST api - negative scenario")
+    @Test
+    public void givenInvalidEmployeeId_whenGetEmployeeById_thenReturnsEmpty() throws Exception{
+        //given - precondition or setup
+        long employeeId = 1L;
+        given(employeeAsyncService.getEmployeeById(employeeId))
+                .willReturn(CompletableFuture.completedFuture(Optional.empty()));
+
+        //when - action or the behavior we are testing
+        MvcResult mvcResult = mockMvc.perform(get("/api/async/employees/{id}", employeeId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //then - verify the output
+        performAsync(mvcResult)
+                .andExpect(status().isNotFound());
+    }
+
+    //JUnit test for async deleteEmployee REST api
+    @DisplayName("JUnit test for async deleteEmployee REST api")
+    @Test
+    public void givenEmployeeId_whenDeleteEmployee_thenReturn200() throws Exception{
+        //given - precondition or setup
+        long employeeId = 1L;
+        given(employeeAsyncService.deleteEmployee(employeeId)).willReturn(CompletableFuture.completedFuture(true));
+
+        //when - action or the behavior we are testing
+        MvcResult mvcResult = mockMvc.perform(delete("/api/async/employees/{id}", employeeId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //then - verify the output
+        performAsync(mvcResult)
+                .andExpect(status().isOk());
+    }
+
+    //JUnit test for async getEmployeeById REST api when the async pool is full
+    @DisplayName("JUnit test for async getEmployeeById REST api when the async pool is full")
+    @Test
+    public void givenFullAsyncPool_whenGetEmployeeById_thenReturn503() throws Exception{
+        //given - precondition or setup
+        given(employeeAsyncService.getEmployeeById(1L)).willThrow(new RejectedExecutionException());
+
+        //when - action or the behavior we are testing
+        ResultActions response = mockMvc.perform(get("/api/async/employees/{id}", 1L));
+
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isServiceUnavailable());
+    }
+}
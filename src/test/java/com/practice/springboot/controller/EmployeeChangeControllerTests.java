@@ -0,0 +1,107 @@
+package com.practice.springboot.controller;
+
+import com.practice.springboot.changes.EmployeeChangeBroadcaster;
+import com.practice.springboot.changes.EmployeeChangeFeed;
+import com.practice.springboot.config.EmployeeProperties;
+import com.practice.springboot.model.Employee;
+import com.practice.springboot.model.EmployeeChangeEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//the real feed and broadcaster behind the controller, the events are read from the streamed response
+@WebMvcTest(EmployeeChangeController.class)
+@Import({EmployeeChangeFeed.class, EmployeeChangeBroadcaster.class, EmployeeProperties.class})
+public class EmployeeChangeControllerTests {
+
+    @TestConfiguration
+    static class MeterRegistryConfig {
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeChangeFeed employeeChangeFeed;
+
+    private static Employee employee(long id) {
+        return Employee.builder().id(id).firstName("John").lastName("Cena").email("john" + id + "@gmail.com").build();
+    }
+
+    //waits until the sender threads have written the expected text to the open stream
+    private static String awaitContent(MvcResult mvcResult, String expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String content = mvcResult.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            content = mvcResult.getResponse().getContentAsString();
+        }
+        return content;
+    }
+
+    //JUnit test for the changes REST api - buffered changes after since are replayed, then new ones follow
+    @DisplayName("JUnit test for the changes REST api - replay and live changes")
+    @Test
+    public void givenBufferedChanges_whenSubscribeSince_thenReplayAndStreamNewChanges() throws Exception{
+        //given - precondition or setup
+        long since = employeeChangeFeed.getLastSequence();
+        employeeChangeFeed.publish(EmployeeChangeEvent.Type.CREATED, employee(1L));
+
+        //when - action or the behavior we are testing
+        MvcResult mvcResult = mockMvc.perform(get("/api/employees/changes").param("since", Long.toString(since)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        awaitContent(mvcResult, "id:" + (since + 1));
+        employeeChangeFeed.publish(EmployeeChangeEvent.Type.DELETED, 1L, null);
+
+        //then - verify the output
+        String content = awaitContent(mvcResult, "id:" + (since + 2));
+        assertThat(content).contains("id:" + (since + 1) + "\nevent:CREATED\n");
+        assertThat(content).contains("\"email\":\"john1@gmail.com\"");
+        assertThat(content).contains("id:" + (since + 2) + "\nevent:DELETED\n");
+    }
+
+    //JUnit test for the changes REST api - a sequence that is not buffered ends with a RESYNC event
+    @DisplayName("JUnit test for the changes REST api - resync")
+    @Test
+    public void givenUnknownSequence_whenSubscribe_thenSendResyncAndComplete() throws Exception{
+        //given - precondition or setup
+        long ahead = employeeChangeFeed.getLastSequence() + 100;
+
+        //when - action or the behavior we are testing
+        MvcResult mvcResult = mockMvc.perform(get("/api/employees/changes").header("Last-Event-ID", ahead))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //then - verify the output
+        assertThat(awaitContent(mvcResult, "event:RESYNC")).contains("event:RESYNC");
+    }
+
+    //JUnit test for the changes REST api - negative sequence
+    @DisplayName("JUnit test for the changes REST api - negative sequence")
+    @Test
+    public void givenNegativeSequence_whenSubscribe_thenReturn400() throws Exception{
+        //when - action or the behavior we are testing, then - verify the output
+        mockMvc.perform(get("/api/employees/changes").param("since", "-1"))
+                .andExpect(status().isBadRequest());
+    }
+}
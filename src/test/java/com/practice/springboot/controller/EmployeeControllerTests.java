@@ -1,8 +1,18 @@
 package com.practice.springboot.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.practice.springboot.exception.EmployeeVersionConflictException;
+import com.practice.springboot.exception.ResourceNotFoundException;
 import com.practice.springboot.model.Employee;
+import com.practice.springboot.model.EmployeesVersion;
+import com.practice.springboot.model.EmployeeBatchResult;
+import com.practice.springboot.model.EmployeeMultiGetResult;
+import com.practice.springboot.model.EmployeeSearchResult;
+import com.practice.springboot.model.RejectedEmployee;
 import com.practice.springboot.service.EmployeeService;
+import com.practice.springboot.wire.EmployeeProtobuf;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -12,11 +22,19 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.hamcrest.CoreMatchers.is;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.*;
@@ -24,7 +42,7 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 
-@WebMvcTest
+@WebMvcTest(EmployeeController.class)
 public class EmployeeControllerTests {
 
     @Autowired
@@ -83,6 +101,51 @@ public class EmployeeControllerTests {
         //note that the '$' symbol represent the root object aka the whole JSON object
     }
 
+    //JUnit test for createEmployee method - email already taken
+    @DisplayName("JUnit test for createEmployee method - email already taken")
+    @Test
+    public void givenExistingEmail_whenCreateEmployee_thenReturn409() throws Exception{
+        //given - precondition or setup
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willThrow(new ResourceNotFoundException("Employee already exists with the given email: " + employee.getEmail()));
+
+        //when - action or the behavior we are testing
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        //then - the exception handler answers with 409 and the message as body
+        response.andDo(print())
+                .andExpect(status().isConflict())
+                .andExpect(content().string("Employee already exists with the given email: " + employee.getEmail()));
+    }
+
+    //JUnit test for createEmployees REST api
+    @DisplayName("JUnit test for createEmployees REST api")
+    @Test
+    public void givenListOfEmployees_whenCreateEmployees_thenReturnSavedAndRejectedEmployees() throws Exception{
+        //given - precondition or setup
+        Employee duplicate = Employee.builder()
+                .firstName("Johnny")
+                .lastName("Cena")
+                .email("john@gmail.com")
+                .build();
+        given(employeeService.saveEmployees(anyList())).willReturn(new EmployeeBatchResult(List.of(employee),
+                List.of(new RejectedEmployee(1, duplicate.getEmail(), "Employee already exists with the given email"))));
+
+        //when - action or the behavior we are testing
+        ResultActions response = mockMvc.perform(post("/api/employees/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(employee, duplicate))));
+
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.saved.size()", is(1)))
+                .andExpect(jsonPath("$.rejected[0].index", is(1)))
+                .andExpect(jsonPath("$.rejected[0].email", is(duplicate.getEmail())));
+    }
+
     //JUnit test for getAllEmployees REST api
     @DisplayName("JUnit test for getAllEmployees REST api")
     @Test
@@ -94,6 +157,7 @@ public class EmployeeControllerTests {
                 .email("will@gmail.com")
                 .build();
 
+        given(employeeService.getEmployeesVersion()).willReturn(new EmployeesVersion(2L, 2L, 0L));
         given(employeeService.getAllEmployees()).willReturn(List.of(employee, employee2));
 
         //when - action or the behavior we are testing
@@ -102,11 +166,318 @@ public class EmployeeControllerTests {
         //then - verify the output
         response.andDo(print())
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2-2-0\""))
                 .andExpect(jsonPath("$.size()", is(2)));
                 //since the return is an array of JSON. $ represent an array of JSON so $.size give you size of that array
 
     }
 
+    //JUnit test for getAllEmployees REST api - binary formats picked by the Accept header
+    @DisplayName("JUnit test for getAllEmployees REST api - CBOR, Smile and protobuf")
+    @Test
+    public void givenBinaryAcceptHeader_whenGetAllEmployees_thenReturnEmployeesInThatFormat() throws Exception{
+        //given - precondition or setup
+        employee.setId(1L);
+        given(employeeService.getEmployeesVersion()).willReturn(new EmployeesVersion(1L, 1L, 0L));
+        given(employeeService.getAllEmployees()).willReturn(List.of(employee));
+
+        //when - action or the behavior we are testing
+        MvcResult cbor = mockMvc.perform(get("/api/employees").accept(MediaType.APPLICATION_CBOR)).andReturn();
+        MvcResult smile = mockMvc.perform(get("/api/employees").accept("application/x-jackson-smile")).andReturn();
+        MvcResult protobuf = mockMvc.perform(get("/api/employees").accept(EmployeeProtobuf.APPLICATION_PROTOBUF)).andReturn();
+        MvcResult json = mockMvc.perform(get("/api/employees").accept(MediaType.ALL)).andReturn();
+
+        //then - verify the output
+        assertThat(cbor.getResponse().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR_VALUE);
+        assertThat(new ObjectMapper(new CBORFactory()).readValue(cbor.getResponse().getContentAsByteArray(), Employee[].class))
+                .extracting(Employee::getEmail).containsExactly("john@gmail.com");
+        assertThat(new ObjectMapper(new SmileFactory()).readValue(smile.getResponse().getContentAsByteArray(), Employee[].class))
+                .extracting(Employee::getEmail).containsExactly("john@gmail.com");
+        assertThat(EmployeeProtobuf.decodeList(protobuf.getResponse().getContentAsByteArray()))
+                .extracting(Employee::getId, Employee::getEmail).containsExactly(tuple(1L, "john@gmail.com"));
+        //protobuf is smaller than JSON for the same employee
+        assertThat(protobuf.getResponse().getContentAsByteArray().length)
+                .isLessThan(json.getResponse().getContentAsByteArray().length);
+        assertThat(json.getResponse().getContentType()).isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+    }
+
+    //JUnit test for createEmployee REST api - protobuf request and response
+    @DisplayName("JUnit test for createEmployee REST api - protobuf")
+    @Test
+    public void givenProtobufEmployee_whenCreateEmployee_thenReturnProtobufEmployee() throws Exception{
+        //given - precondition or setup
+        given(employeeService.saveEmployee(any(Employee.class))).willAnswer(invocation -> {
+            Employee saved = invocation.getArgument(0);
+            saved.setId(7L);
+            return saved;
+        });
+
+        //when - action or the behavior we are testing
+        MvcResult mvcResult = mockMvc.perform(post("/api/employees")
+                        .contentType(EmployeeProtobuf.APPLICATION_PROTOBUF)
+                        .accept(EmployeeProtobuf.APPLICATION_PROTOBUF)
+                        .content(EmployeeProtobuf.encode(employee)))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        //then - verify the output
+        Employee savedEmployee = EmployeeProtobuf.decode(mvcResult.getResponse().getContentAsByteArray());
+        assertThat(savedEmployee.getId()).isEqualTo(7L);
+        assertThat(savedEmployee.getFirstName()).isEqualTo("John");
+        assertThat(savedEmployee.getEmail()).isEqualTo("john@gmail.com");
+    }
+
+    //JUnit test for getAllEmployees REST api - unchanged list
+    @DisplayName("JUnit test for getAllEmployees REST api - unchanged list")
+    @Test
+    public void givenMatchingETag_whenGetAllEmployees_thenReturn304WithoutLoadingEmployees() throws Exception{
+        //given - precondition or setup
+        given(employeeService.getEmployeesVersion()).willReturn(new EmployeesVersion(2L, 2L, 0L));
+
+        //when - action or the behavior we are testing
+        ResultActions response = mockMvc.perform(get("/api/employees").header("If-None-Match", "\"2-2-0\""));
+
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(employeeService, never()).getAllEmployees();
+    }
+
+    //JUnit test for keyset paginated getAllEmployees REST api
+    @DisplayName("JUnit test for keyset paginated getAllEmployees REST api")
+    @Test
+    public void givenAfterIdAndLimit_whenGetEmployeesPage_thenReturnEmployeesPage() throws Exception{
+        //given - precondition or setup
+        given(employeeService.getEmployeesAfter(10L, 1)).willReturn(List.of(employee));
+
+        //when - action or the behavior we are testing
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("after", "10")
+                .param("limit", "1"));
+
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(jsonPath("$[0].email", is(employee.getEmail())));
+    }
+
+    //JUnit test for keyset paginated getAllEmployees REST api - limit is clamped
+    @DisplayName("JUnit test for keyset paginated getAllEmployees REST api - limit is clamped")
+    @Test
+    public void givenTooLargeLimit_whenGetEmployeesPage_thenLimitIsClamped() throws Exception{
+        //given - precondition or setup
+        given(employeeService.getEmployeesAfter(0L, EmployeeController.MAX_PAGE_SIZE)).willReturn(List.of(employee));
+
+        //when - action or the behavior we are testing
+        ResultActions response = mockMvc.perform(get("/api/employees").param("limit", "1000000"));
+
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(1)));
+    }
+
+    //JUnit test for getEmployeeFields REST api
+    @DisplayName("JUnit test for getEmployeeFields REST api")
+    @Test
+    public void givenFields_whenGetEmployeeFields_thenReturnOnlyTheSelectedFields() throws Exception{
+        //given - precondition or setup
+        given(employeeService.getEmployeeFields(List.of("id", "email"), 0L, 0))
+                .willReturn(List.of(Map.of("id", 1L, "email", "john@gmail.com")));
+
+        //when - action or the behavior we are testing
+        ResultActions response = mockMvc.perform(get("/api/employees").param("fields", "id,email"));
+
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(jsonPath("$[0].email", is("john@gmail.com")))
+                .andExpect(jsonPath("$[0].firstName").doesNotExist());
+    }
+
+    //JUnit test for getEmployeeFields REST api - a field listed twice
+    @DisplayName("JUnit test for getEmployeeFields REST api - duplicate field")
+    @Test
+    public void givenDuplicateFields_whenGetEmployeeFields_thenSelectEachFieldOnce() throws Exception{
+        //given - precondition or setup
+        given(employeeService.getEmployeeFields(List.of("email", "id"), 0L, 0))
+                .willReturn(List.of(Map.of("id", 1L, "email", "john@gmail.com")));
+
+        //when - action or the behavior we are testing
+        ResultActions response = mockMvc.perform(get("/api/employees").param("fields", "email,id,email,id"));
+
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].email", is("john@gmail.com")));
+        verify(employeeService).getEmployeeFields(List.of("email", "id"), 0L, 0);
+    }
+
+    //JUnit test for getEmployeeFields REST api - unknown field
+    @DisplayName("JUnit test for getEmployeeFields REST api - unknown field")
+    @Test
+    public void givenUnknownField_whenGetEmployeeFields_thenReturn400() throws Exception{
+        //when - action or the behavior we are testing
+        ResultActions response = mockMvc.perform(get("/api/employees").param("fields", "id,salary").param("limit", "10"));
+
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isBadRequest());
+        verify(employeeService, never()).getEmployeeFields(anyList(), anyLong(), anyInt());
+    }
+
+    //JUnit test for getEmployeeFields REST api - empty field list
+    @DisplayName("JUnit test for getEmployeeFields REST api - empty field list")
+    @Test
+    public void givenEmptyFields_whenGetEmployeeFields_thenReturn400() throws Exception{
+        //when - action or the behavior we are testing
+        ResultActions response = mockMvc.perform(get("/api/employees").param("fields", ""));
+
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isBadRequest());
+        verify(employeeService, never()).getEmployeeFields(anyList(), anyLong(), anyInt());
+    }
+
+    //JUnit test for getEmployeeByEmail REST api - unknown email
+    @DisplayName("JUnit test for getEmployeeByEmail REST api - unknown email")
+    @Test
+    public void givenUnknownEmail_whenGetEmployeeByEmail_thenReturn404() throws Exception{
+        //given - precondition or setup
+        given(employeeService.getEmployeeByEmail("nobody@gmail.com")).willReturn(Optional.empty());
+
+        //when - action or the behavior we are testing
+        ResultActions response = mockMvc.perform(get("/api/employees").param("email", "nobody@gmail.com"));
+
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isNotFound());
+    }
+
+    //JUnit test for getEmployeesByIds REST api
+    @DisplayName("JUnit test for getEmployeesByIds REST api")
+    @Test
+    public void givenIds_whenGetEmployeesByIds_thenReturnFoundAndMissing() throws Exception{
+        //given - precondition or setup
+        given(employeeService.getEmployeesByIds(List.of(1L, 2L)))
+                .willReturn(new EmployeeMultiGetResult(List.of(employee), List.of(2L)));
+
+        //when - action or the behavior we are testing
+        ResultActions response = mockMvc.perform(get("/api/employees").param("ids", "1,2"));
+
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.employees.size()", is(1)))
+                .andExpect(jsonPath("$.missing[0]", is(2)));
+    }
+
+    //JUnit test for multiGetEmployees REST api - too many ids
+    @DisplayName("JUnit test for multiGetEmployees REST api - too many ids")
+    @Test
+    public void givenTooManyIds_whenMultiGetEmployees_thenReturn400() throws Exception{
+        //given - precondition or setup
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= EmployeeController.MAX_PAGE_SIZE + 1; id++) {
+            ids.add(id);
+        }
+
+        //when - action or the behavior we are testing
+        ResultActions response = mockMvc.perform(post("/api/employees/_mget")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(ids)));
+
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isBadRequest());
+        verify(employeeService, never()).getEmployeesByIds(anyList());
+    }
+
+    //JUnit test for searchEmployees REST api
+    @DisplayName("JUnit test for searchEmployees REST api")
+    @Test
+    public void givenQuery_whenSearchEmployees_thenReturnRankedPage() throws Exception{
+        //given - precondition or setup
+        given(employeeService.searchEmployees("jo", 0, 20))
+                .willReturn(new EmployeeSearchResult(List.of(employee), 1, 0, 20));
+
+        //when - action or the behavior we are testing
+        ResultActions response = mockMvc.perform(get("/api/employees/search").param("q", "jo"));
+
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(1)))
+                .andExpect(jsonPath("$.employees[0].email", is(employee.getEmail())));
+    }
+
+    //JUnit test for streamAllEmployees REST api
+    @DisplayName("JUnit test for streamAllEmployees REST api")
+    @Test
+    public void givenListOfEmployees_whenStreamAllEmployees_thenReturnNewlineDelimitedJson() throws Exception{
+        //given - precondition or setup
+        Employee employee2 = Employee.builder()
+                .firstName("Will")
+                .lastName("Smith")
+                .email("will@gmail.com")
+                .build();
+
+        //feed both employees to the consumer the controller passes in
+        willAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            consumer.accept(employee);
+            consumer.accept(employee2);
+            return null;
+        }).given(employeeService).streamAllEmployees(any());
+
+        //when - action or the behavior we are testing
+        //the body is written asynchronously, so wait for the async result before reading it
+        MvcResult mvcResult = mockMvc.perform(get("/api/employees/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvcResult.getAsyncResult();
+
+        //then - verify the output
+        String[] lines = mvcResult.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[0], Employee.class).getEmail()).isEqualTo(employee.getEmail());
+        assertThat(objectMapper.readValue(lines[1], Employee.class).getEmail()).isEqualTo(employee2.getEmail());
+    }
+
+    //JUnit test for streamAllEmployees REST api - binary streams
+    @DisplayName("JUnit test for streamAllEmployees REST api - Smile and protobuf")
+    @Test
+    public void givenBinaryAcceptHeader_whenStreamAllEmployees_thenReturnOneValuePerEmployee() throws Exception{
+        //given - precondition or setup
+        Employee employee2 = Employee.builder().id(2L).firstName("Will").lastName("Smith").email("will@gmail.com").build();
+        willAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            consumer.accept(employee);
+            consumer.accept(employee2);
+            return null;
+        }).given(employeeService).streamAllEmployees(any());
+
+        //when - action or the behavior we are testing
+        MvcResult smile = mockMvc.perform(get("/api/employees/stream").accept("application/x-jackson-smile")).andReturn();
+        smile.getAsyncResult();
+        MvcResult protobuf = mockMvc.perform(get("/api/employees/stream").accept(EmployeeProtobuf.APPLICATION_PROTOBUF)).andReturn();
+        protobuf.getAsyncResult();
+
+        //then - verify the output
+        assertThat(smile.getResponse().getContentType()).isEqualTo("application/x-jackson-smile");
+        List<Employee> smileEmployees = new ObjectMapper(new SmileFactory())
+                .readerFor(Employee.class).<Employee>readValues(smile.getResponse().getContentAsByteArray()).readAll();
+        assertThat(smileEmployees).extracting(Employee::getEmail).containsExactly("john@gmail.com", "will@gmail.com");
+
+        InputStream in = new ByteArrayInputStream(protobuf.getResponse().getContentAsByteArray());
+        assertThat(EmployeeProtobuf.readDelimited(in).getEmail()).isEqualTo("john@gmail.com");
+        assertThat(EmployeeProtobuf.readDelimited(in).getId()).isEqualTo(2L);
+        assertThat(EmployeeProtobuf.readDelimited(in)).isNull();
+    }
+
     //JUnit test for getEmployeeById REST api - positive scenario
     @DisplayName("JUnit test for getEmployeeById REST api - positive scenario")
     @Test
@@ -127,6 +498,26 @@ public class EmployeeControllerTests {
                 .andExpect(jsonPath("$.email", is(employee.getEmail())));
     }
 
+    //JUnit test for getEmployeeById REST api - unchanged employee
+    @DisplayName("JUnit test for getEmployeeById REST api - unchanged employee")
+    @Test
+    public void givenMatchingETag_whenGetEmployeeById_thenReturn304() throws Exception{
+        //given - precondition or setup
+        long employeeId = 1L;
+        employee.setVersion(3L);
+        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(employee));
+
+        //when - action or the behavior we are testing
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId)
+                .header("If-None-Match", "\"3\""));
+
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().string(""));
+    }
+
     //JUnit test for getEmployeeById REST api - positive scenario
     @DisplayName("JUnit test for getEmployeeById REST api - negative scenario")
     @Test
@@ -150,20 +541,15 @@ public class EmployeeControllerTests {
     public void givenUpdatedEmployee_whenUpdateEmployee_thenReturnUpdatedEmployeeObject() throws Exception{
         //given - precondition or setup
         long employeeId = 1L;
-        Employee savedEmployee = Employee.builder()
-                .firstName("John")
-                .lastName("Cena")
-                .email("john@gmail.com")
-                .build();
         Employee updatedEmployee = Employee.builder()
                 .firstName("Johnson")
                 .lastName("C")
                 .email("johnson@gmail.com")
                 .build();
 
-        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(savedEmployee));
-        given(employeeService.updateEmployee(any(Employee.class)))
-                .willAnswer((invocation) -> invocation.getArgument(0));
+        //the service updates the row in one statement and returns the updated employee
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class)))
+                .willAnswer((invocation) -> Optional.of(invocation.getArgument(1)));
 
         //when - action or the behavior we are testing
         ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
@@ -184,20 +570,14 @@ public class EmployeeControllerTests {
     public void givenUpdatedEmployee_whenUpdateEmployee_thenReturn404() throws Exception{
         //given - precondition or setup
         long employeeId = 1L;
-        Employee savedEmployee = Employee.builder()
-                .firstName("John")
-                .lastName("Cena")
-                .email("john@gmail.com")
-                .build();
         Employee updatedEmployee = Employee.builder()
                 .firstName("Johnson")
                 .lastName("C")
                 .email("johnson@gmail.com")
                 .build();
 
-        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.empty());
-        given(employeeService.updateEmployee(any(Employee.class)))
-                .willAnswer((invocation) -> invocation.getArgument(0));
+        //no row was updated, so there is no employee with this id
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class))).willReturn(Optional.empty());
 
         //when - action or the behavior we are testing
         ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
@@ -209,13 +589,60 @@ public class EmployeeControllerTests {
                 .andExpect(status().isNotFound());
     }
 
+    //JUnit test for updateEmployee REST api with If-Match - positive scenario
+    @DisplayName("JUnit test for updateEmployee REST api with If-Match - positive scenario")
+    @Test
+    public void givenCurrentETag_whenUpdateEmployee_thenReturnUpdatedEmployeeAndNewETag() throws Exception{
+        //given - precondition or setup
+        long employeeId = 1L;
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class), eq(3L)))
+                .willAnswer((invocation) -> {
+                    Employee updatedEmployee = invocation.getArgument(1);
+                    updatedEmployee.setVersion(4L);
+                    return Optional.of(updatedEmployee);
+                });
+
+        //when - action or the behavior we are testing
+        ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.email", is(employee.getEmail())));
+    }
+
+    //JUnit test for updateEmployee REST api with If-Match - stale version
+    @DisplayName("JUnit test for updateEmployee REST api with If-Match - stale version")
+    @Test
+    public void givenStaleETag_whenUpdateEmployee_thenReturn412() throws Exception{
+        //given - precondition or setup
+        long employeeId = 1L;
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class), eq(2L)))
+                .willThrow(new EmployeeVersionConflictException("Employee 1 no longer has version 2"));
+
+        //when - action or the behavior we are testing
+        ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
+                .header("If-Match", "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(content().string("Employee 1 no longer has version 2"));
+    }
+
     //JUnit test for deleteEmployee REST api
     @DisplayName("JUnit test for deleteEmployee REST api")
     @Test
     public void givenEmployeeId_whenDeleteEmployee_thenReturn200() throws Exception{
         long employeeId = 1L;
         //given - precondition or setup
-        willDoNothing().given(employeeService).deleteEmployee(employeeId);
+        given(employeeService.deleteEmployee(employeeId)).willReturn(true);
 
         //when - action or the behavior we are testing
         ResultActions response = mockMvc.perform(delete("/api/employees/{id}", employeeId));
@@ -225,4 +652,20 @@ public class EmployeeControllerTests {
                 .andExpect(status().isOk());
     }
 
+    //JUnit test for deleteEmployee REST api - unknown id
+    @DisplayName("JUnit test for deleteEmployee REST api - unknown id")
+    @Test
+    public void givenInvalidEmployeeId_whenDeleteEmployee_thenReturn404() throws Exception{
+        long employeeId = 1L;
+        //given - precondition or setup
+        given(employeeService.deleteEmployee(employeeId)).willReturn(false);
+
+        //when - action or the behavior we are testing
+        ResultActions response = mockMvc.perform(delete("/api/employees/{id}", employeeId));
+
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isNotFound());
+    }
+
 }
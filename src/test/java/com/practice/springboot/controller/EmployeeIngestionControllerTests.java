@@ -0,0 +1,123 @@
+package com.practice.springboot.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.practice.springboot.exception.IngestionQueueFullException;
+import com.practice.springboot.model.Employee;
+import com.practice.springboot.model.IngestionStatus;
+import com.practice.springboot.service.EmployeeIngestionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Optional;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(EmployeeIngestionController.class)
+public class EmployeeIngestionControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeIngestionService employeeIngestionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup() {
+        employee = Employee.builder()
+                .firstName("John")
+                .lastName("Cena")
+                .email("john@gmail.com")
+                .build();
+    }
+
+    //JUnit test for ingestEmployee REST api
+    @DisplayName("JUnit test for ingestEmployee REST api")
+    @Test
+    public void givenEmployeeObject_whenIngestEmployee_thenReturnAcceptedWithTrackingId() throws Exception{
+        //given - precondition or setup
+        given(employeeIngestionService.submit(any(Employee.class)))
+                .willReturn(IngestionStatus.builder().id("42").state(IngestionStatus.State.PENDING).build());
+
+        //when - action or the behavior we are testing
+        ResultActions response = mockMvc.perform(post("/api/employees/ingest")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/employees/ingest/42"))
+                .andExpect(jsonPath("$.state", is("PENDING")));
+    }
+
+    //JUnit test for ingestEmployee REST api - invalid employee
+    @DisplayName("JUnit test for ingestEmployee REST api - invalid employee")
+    @Test
+    public void givenEmployeeWithoutEmail_whenIngestEmployee_thenReturn400() throws Exception{
+        //given - precondition or setup
+        employee.setEmail(" ");
+
+        //when - action or the behavior we are testing
+        ResultActions response = mockMvc.perform(post("/api/employees/ingest")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isBadRequest());
+        verify(employeeIngestionService, never()).submit(any(Employee.class));
+    }
+
+    //JUnit test for ingestEmployee REST api - full queue
+    @DisplayName("JUnit test for ingestEmployee REST api - full queue")
+    @Test
+    public void givenFullQueue_whenIngestEmployee_thenReturn429() throws Exception{
+        //given - precondition or setup
+        given(employeeIngestionService.submit(any(Employee.class)))
+                .willThrow(new IngestionQueueFullException("Ingestion queue is full, try again later."));
+
+        //when - action or the behavior we are testing
+        ResultActions response = mockMvc.perform(post("/api/employees/ingest")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isTooManyRequests())
+                .andExpect(content().string("Ingestion queue is full, try again later."));
+    }
+
+    //JUnit test for getIngestionStatus REST api - unknown tracking id
+    @DisplayName("JUnit test for getIngestionStatus REST api - unknown tracking id")
+    @Test
+    public void givenUnknownTrackingId_whenGetIngestionStatus_thenReturn404() throws Exception{
+        //given - precondition or setup
+        given(employeeIngestionService.getStatus("42")).willReturn(Optional.empty());
+
+        //when - action or the behavior we are testing
+        ResultActions response = mockMvc.perform(get("/api/employees/ingest/{id}", "42"));
+
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,125 @@
+package com.practice.springboot.controller;
+
+import com.practice.springboot.model.Employee;
+import com.practice.springboot.service.EmployeeService;
+import com.practice.springboot.service.EmployeeTransferService;
+import com.practice.springboot.transfer.TransferFormat;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.embedded.tomcat.TomcatConnectorCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+
+//streams, exports and async lists through a real Tomcat whose async timeout is cut down to one second, in place of its default 30 seconds:
+//a stream that takes longer than that must still be written to the end
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class EmployeeStreamTimeoutTests {
+
+    static final int CONNECTOR_ASYNC_TIMEOUT_MILLIS = 1000;
+
+    @TestConfiguration
+    static class ShortAsyncTimeout {
+        @Bean
+        public TomcatConnectorCustomizer shortAsyncTimeout() {
+            return connector -> connector.setAsyncTimeout(CONNECTOR_ASYNC_TIMEOUT_MILLIS);
+        }
+    }
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @MockBean
+    private EmployeeService employeeService;
+
+    @MockBean
+    private EmployeeTransferService employeeTransferService;
+
+    //one employee, a pause well beyond the connector's async timeout (Tomcat checks it about once a second), then the other one
+    static void slowStream(Consumer<Employee> consumer) throws InterruptedException {
+        consumer.accept(Employee.builder().id(1L).firstName("John").lastName("Cena").email("john@gmail.com").build());
+        Thread.sleep(3 * CONNECTOR_ASYNC_TIMEOUT_MILLIS);
+        consumer.accept(Employee.builder().id(2L).firstName("Will").lastName("Smith").email("will@gmail.com").build());
+    }
+
+    //JUnit test for streamAllEmployees REST api - a stream longer than the container's async timeout
+    @DisplayName("JUnit test for streamAllEmployees REST api past the async timeout")
+    @Test
+    public void givenSlowStream_whenStreamAllEmployees_thenEveryRowIsWritten() {
+        //given - precondition or setup
+        willAnswer(invocation -> {
+            slowStream(invocation.getArgument(0));
+            return null;
+        }).given(employeeService).streamAllEmployees(any());
+
+        //when - action or the behavior we are testing
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/employees/stream", String.class);
+
+        //then - verify the output
+        assertThat(response.getStatusCodeValue()).isEqualTo(200);
+        assertThat(response.getBody()).contains("john@gmail.com", "will@gmail.com");
+        assertThat(response.getBody().lines()).hasSize(2);
+    }
+
+    //JUnit test for exportEmployees REST api - an export longer than the container's async timeout
+    @DisplayName("JUnit test for exportEmployees REST api past the async timeout")
+    @Test
+    public void givenSlowExport_whenExportEmployees_thenWholeExportIsWritten() throws Exception {
+        //given - precondition or setup
+        given(employeeTransferService.exportEmployees(eq(TransferFormat.CSV), any())).willAnswer(invocation -> {
+            WritableByteChannel channel = invocation.getArgument(1);
+            channel.write(ByteBuffer.wrap("firstName,lastName,email\n".getBytes(StandardCharsets.UTF_8)));
+            slowStream(employee -> {
+                try {
+                    channel.write(ByteBuffer.wrap((employee.getFirstName() + "," + employee.getLastName() + ","
+                            + employee.getEmail() + "\n").getBytes(StandardCharsets.UTF_8)));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return 2L;
+        });
+
+        //when - action or the behavior we are testing
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/employees/export?format=csv", String.class);
+
+        //then - verify the output
+        assertThat(response.getStatusCodeValue()).isEqualTo(200);
+        assertThat(response.getBody().lines()).hasSize(3).last().asString().endsWith("will@gmail.com");
+    }
+
+    //JUnit test for async getAllEmployees REST api - a list that streams longer than the container's async timeout
+    @DisplayName("JUnit test for async getAllEmployees REST api past the async timeout")
+    @Test
+    public void givenSlowStream_whenAsyncGetAllEmployees_thenWholeListIsWritten() {
+        //given - precondition or setup
+        willAnswer(invocation -> {
+            slowStream(invocation.getArgument(0));
+            return null;
+        }).given(employeeService).streamAllEmployees(any());
+
+        //when - action or the behavior we are testing
+        ResponseEntity<Employee[]> response = restTemplate.getForEntity("/api/async/employees", Employee[].class);
+
+        //then - verify the output
+        assertThat(response.getStatusCodeValue()).isEqualTo(200);
+        assertThat(response.getBody()).extracting(Employee::getEmail).containsExactly("john@gmail.com", "will@gmail.com");
+    }
+}
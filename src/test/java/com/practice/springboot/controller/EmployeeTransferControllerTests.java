@@ -0,0 +1,80 @@
+package com.practice.springboot.controller;
+
+import com.practice.springboot.exception.MalformedEmployeeDataException;
+import com.practice.springboot.model.EmployeeImportResult;
+import com.practice.springboot.service.EmployeeTransferService;
+import com.practice.springboot.transfer.TransferFormat;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(EmployeeTransferController.class)
+public class EmployeeTransferControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeTransferService employeeTransferService;
+
+    //JUnit test for importEmployees REST api
+    @DisplayName("JUnit test for importEmployees REST api")
+    @Test
+    public void givenCsvBody_whenImportEmployees_thenReturnImportResult() throws Exception{
+        //given - precondition or setup
+        given(employeeTransferService.importEmployees(eq(TransferFormat.CSV), any()))
+                .willReturn(new EmployeeImportResult(1, 0, 5, 200));
+
+        //when - action or the behavior we are testing
+        ResultActions response = mockMvc.perform(post("/api/employees/import")
+                .param("format", "csv")
+                .content("firstName,lastName,email\nJohn,Cena,john@gmail.com\n"));
+
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)));
+    }
+
+    //JUnit test for importEmployees REST api - body that is not a valid export
+    @DisplayName("JUnit test for importEmployees REST api - malformed body")
+    @Test
+    public void givenMalformedBody_whenImportEmployees_thenReturn400() throws Exception{
+        //given - precondition or setup
+        given(employeeTransferService.importEmployees(eq(TransferFormat.BINARY), any()))
+                .willThrow(new MalformedEmployeeDataException("Not a binary employee export"));
+
+        //when - action or the behavior we are testing
+        ResultActions response = mockMvc.perform(post("/api/employees/import")
+                .param("format", "binary")
+                .content("firstName,lastName,email\n"));
+
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    //JUnit test for exportEmployees REST api - unknown format
+    @DisplayName("JUnit test for exportEmployees REST api - unknown format")
+    @Test
+    public void givenUnknownFormat_whenExportEmployees_thenReturn400() throws Exception{
+        //when - action or the behavior we are testing
+        ResultActions response = mockMvc.perform(get("/api/employees/export").param("format", "xml"));
+
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,63 @@
+package com.practice.springboot.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GradientConcurrencyLimiterTests {
+
+    //completes count requests with the given latency while the endpoint is busy
+    private static void complete(GradientConcurrencyLimiter limiter, int count, long latencyMillis) {
+        for (int i = 0; i < count; i++) {
+            int busy = limiter.getLimit();
+            int acquired = 0;
+            while (acquired < busy && limiter.tryAcquire()) {
+                acquired++;
+            }
+            for (int j = 0; j < acquired; j++) {
+                limiter.release(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+            }
+        }
+    }
+
+    //JUnit test for the gradient limiter - steady latency raises the limit, rising latency lowers it
+    @DisplayName("JUnit test for the gradient limiter")
+    @Test
+    public void givenLatency_whenRequestsComplete_thenLimitFollowsQueueing() {
+        //given - precondition or setup
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(20, 4, 200);
+
+        //when - action or the behavior we are testing
+        complete(limiter, 20, 10);
+        int steadyLimit = limiter.getLimit();
+        complete(limiter, 20, 100);
+        int congestedLimit = limiter.getLimit();
+
+        //then - verify the output
+        assertThat(steadyLimit).isGreaterThan(20);
+        assertThat(congestedLimit).isLessThan(steadyLimit).isGreaterThanOrEqualTo(4);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    //JUnit test for the gradient limiter - no request over the limit is admitted
+    @DisplayName("JUnit test for the gradient limiter at its limit")
+    @Test
+    public void givenLimitReached_whenTryAcquire_thenReturnFalseUntilRelease() {
+        //given - precondition or setup
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(2, 1, 10);
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+
+        //when - action or the behavior we are testing
+        boolean overLimit = limiter.tryAcquire();
+        limiter.release(-1);
+        boolean afterRelease = limiter.tryAcquire();
+
+        //then - verify the output
+        assertThat(overLimit).isFalse();
+        assertThat(afterRelease).isTrue();
+    }
+}
@@ -0,0 +1,200 @@
+package com.practice.springboot.ratelimit;
+
+import com.practice.springboot.config.EmployeeProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RateLimitFilterTests {
+
+    private EmployeeProperties.RateLimit config;
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setup() {
+        config = new EmployeeProperties().getRateLimit();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private static MockHttpServletRequest request(String client, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setRemoteAddr(client);
+        return request;
+    }
+
+    private static MockHttpServletRequest request(String address, String clientId, String uri) {
+        MockHttpServletRequest request = request(address, uri);
+        request.addHeader("X-Client-Id", clientId);
+        return request;
+    }
+
+    //JUnit test for the rate limit filter - a client over its burst gets 429, other clients are not affected
+    @DisplayName("JUnit test for the rate limit filter - client over its rate")
+    @Test
+    public void givenClientOverBurst_whenFilter_thenReturn429OnlyForThatClient() throws Exception {
+        //given - precondition or setup
+        config.setRequestsPerSecond(1);
+        config.setBurst(3);
+        RateLimitFilter filter = new RateLimitFilter(config, meterRegistry);
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletResponse allowed = new MockHttpServletResponse();
+            filter.doFilter(request("greedy", "/api/employees"), allowed, new MockFilterChain());
+            assertThat(allowed.getStatus()).isEqualTo(200);
+        }
+
+        //when - action or the behavior we are testing
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        MockFilterChain rejectedChain = new MockFilterChain();
+        filter.doFilter(request("greedy", "/api/employees"), rejected, rejectedChain);
+        MockHttpServletResponse other = new MockHttpServletResponse();
+        filter.doFilter(request("polite", "/api/employees"), other, new MockFilterChain());
+
+        //then - verify the output
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(rejectedChain.getRequest()).isNull(); //the controller was never called
+        assertThat(other.getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.get("employee.ratelimit.rejected").tag("reason", "rate").counter().count()).isEqualTo(1);
+    }
+
+    //JUnit test for the rate limit filter - without a trusted header a new client id does not get a new bucket
+    @DisplayName("JUnit test for the rate limit filter - client header is not trusted by default")
+    @Test
+    public void givenUntrustedClientHeader_whenFilter_thenClientsAreKeyedByAddress() throws Exception {
+        //given - precondition or setup
+        config.setRequestsPerSecond(1);
+        config.setBurst(1);
+        RateLimitFilter filter = new RateLimitFilter(config, meterRegistry);
+        filter.doFilter(request("10.0.0.1", "first", "/api/employees"), new MockHttpServletResponse(), new MockFilterChain());
+
+        //when - action or the behavior we are testing
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request("10.0.0.1", "second", "/api/employees"), response, new MockFilterChain());
+
+        //then - verify the output
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(meterRegistry.get("employee.ratelimit.clients").gauge().value()).isEqualTo(1);
+    }
+
+    //JUnit test for the rate limit filter - a header set by a gateway tells the clients behind it apart
+    @DisplayName("JUnit test for the rate limit filter - trusted client header")
+    @Test
+    public void givenTrustedClientHeader_whenFilter_thenClientsAreKeyedByHeader() throws Exception {
+        //given - precondition or setup
+        config.setRequestsPerSecond(1);
+        config.setBurst(1);
+        config.setClientHeader("X-Client-Id");
+        RateLimitFilter filter = new RateLimitFilter(config, meterRegistry);
+        filter.doFilter(request("10.0.0.1", "first", "/api/employees"), new MockHttpServletResponse(), new MockFilterChain());
+
+        //when - action or the behavior we are testing
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request("10.0.0.1", "second", "/api/employees"), response, new MockFilterChain());
+
+        //then - verify the output
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    //JUnit test for the rate limit filter - an endpoint at its concurrency limit gets 503, ids share one limit
+    @DisplayName("JUnit test for the rate limit filter - endpoint at its concurrency limit")
+    @Test
+    public void givenEndpointAtConcurrencyLimit_whenFilter_thenReturn503() throws Exception {
+        //given - precondition or setup
+        config.setInitialLimit(1);
+        config.setMinLimit(1);
+        RateLimitFilter filter = new RateLimitFilter(config, meterRegistry);
+        CountDownLatch inController = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slowController = (request, response) -> {
+            inController.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        CompletableFuture<Void> slowRequest = CompletableFuture.runAsync(() -> {
+            try {
+                filter.doFilter(request("a", "/api/employees/1"), new MockHttpServletResponse(), slowController);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(inController.await(5, TimeUnit.SECONDS)).isTrue();
+
+        //when - action or the behavior we are testing
+        MockHttpServletResponse sameEndpoint = new MockHttpServletResponse();
+        filter.doFilter(request("b", "/api/employees/2"), sameEndpoint, new MockFilterChain());
+        MockHttpServletResponse otherEndpoint = new MockHttpServletResponse();
+        filter.doFilter(request("b", "/api/employees/search"), otherEndpoint, new MockFilterChain());
+        release.countDown();
+        slowRequest.get(5, TimeUnit.SECONDS);
+
+        //then - verify the output
+        assertThat(sameEndpoint.getStatus()).isEqualTo(503);
+        assertThat(otherEndpoint.getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.get("employee.ratelimit.rejected").tag("endpoint", "GET /api/employees/{id}")
+                .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("employee.ratelimit.inflight").tag("endpoint", "GET /api/employees/{id}")
+                .gauge().value()).isZero();
+    }
+
+    //JUnit test for the rate limit filter - an async result holds the slot until it is written
+    @DisplayName("JUnit test for the rate limit filter - async request")
+    @Test
+    public void givenAsyncRequest_whenHandlerReturns_thenSlotIsHeldUntilCompletion() throws Exception {
+        //given - precondition or setup
+        RateLimitFilter filter = new RateLimitFilter(config, meterRegistry);
+        MockHttpServletRequest request = request("a", "/api/async/employees/1");
+        request.setAsyncSupported(true);
+        FilterChain asyncController = (servletRequest, servletResponse) -> servletRequest.startAsync();
+
+        //when - action or the behavior we are testing
+        filter.doFilter(request, new MockHttpServletResponse(), asyncController);
+        double inFlightWhileRunning = inFlight("GET /api/async/employees/{id}");
+        request.getAsyncContext().complete();
+
+        //then - verify the output
+        assertThat(inFlightWhileRunning).isEqualTo(1);
+        assertThat(inFlight("GET /api/async/employees/{id}")).isZero();
+    }
+
+    //JUnit test for the rate limit filter - a stream gives its slot back when the handler returns
+    @DisplayName("JUnit test for the rate limit filter - streamed response")
+    @Test
+    public void givenStream_whenHandlerReturns_thenSlotIsReleased() throws Exception {
+        //given - precondition or setup
+        RateLimitFilter filter = new RateLimitFilter(config, meterRegistry);
+        MockHttpServletRequest request = request("a", "/api/employees/changes");
+        request.setAsyncSupported(true);
+        FilterChain sseController = (servletRequest, servletResponse) -> {
+            servletResponse.setContentType("text/event-stream");
+            servletRequest.startAsync();
+        };
+
+        //when - action or the behavior we are testing
+        filter.doFilter(request, new MockHttpServletResponse(), sseController);
+
+        //then - verify the output
+        assertThat(inFlight("GET /api/employees/changes")).isZero();
+        request.getAsyncContext().complete();
+        assertThat(inFlight("GET /api/employees/changes")).isZero();
+    }
+
+    private double inFlight(String endpoint) {
+        return meterRegistry.get("employee.ratelimit.inflight").tag("endpoint", endpoint).gauge().value();
+    }
+}
@@ -1,16 +1,30 @@
 package com.practice.springboot.repository;
 
 import com.practice.springboot.model.Employee;
+import com.practice.springboot.model.EmployeesVersion;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManagerFactory;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 @DataJpaTest
@@ -19,6 +33,9 @@ public class EmployeeRepositoryTests {
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private Employee employee;
 
     @BeforeEach
@@ -46,6 +63,27 @@ public class EmployeeRepositoryTests {
         assertThat(savedEmployee.getId()).isGreaterThan(0);
     }
 
+    //JUnit test for save employee operation with an email that is already taken
+    @DisplayName("JUnit test for save employee operation with an email that is already taken")
+    @Test
+    public void givenExistingEmail_whenSaveAndFlush_thenThrowsDataIntegrityViolation() {
+        //given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+        Employee duplicate = Employee.builder()
+                .firstName("Johnny")
+                .lastName("Cena")
+                .email(employee.getEmail())
+                .build();
+
+        //when - action or the behavior we are testing
+        //then - verify the output
+        assertThatThrownBy(() -> employeeRepository.saveAndFlush(duplicate))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .getCause()
+                .isInstanceOfSatisfying(ConstraintViolationException.class, violation ->
+                        assertThat(violation.getConstraintName()).containsIgnoringCase(Employee.EMAIL_UNIQUE_CONSTRAINT));
+    }
+
     //JUnit test for get all employees operation
     @DisplayName("JUnit test for get all employees operation")
     @Test
@@ -70,6 +108,120 @@ public class EmployeeRepositoryTests {
         assertThat(employeeList.size()).isEqualTo(2);
     }
 
+    //JUnit test for find existing emails operation
+    @DisplayName("JUnit test for find existing emails operation")
+    @Test
+    public void givenEmployeeObject_whenFindExistingEmails_thenReturnOnlyTakenEmails() {
+        //given - precondition or setup
+        //Employee Object will be created by the setup method
+        employeeRepository.save(employee);
+
+        //when - action or the behavior we are testing
+        List<String> existingEmails = employeeRepository.findExistingEmails(List.of("john@gmail.com", "will@gmail.com"));
+
+        //then - verify the output
+        assertThat(existingEmails).containsExactly("john@gmail.com");
+    }
+
+    //JUnit test for keyset pagination operation
+    @DisplayName("JUnit test for keyset pagination operation")
+    @Test
+    public void givenEmployeesList_whenFindByIdGreaterThan_thenReturnNextPage() {
+        //given - precondition or setup
+        Employee employee2 = Employee.builder()
+                .firstName("Will")
+                .lastName("Smith")
+                .email("will@gmail.com")
+                .build();
+        Employee employee3 = Employee.builder()
+                .firstName("Tom")
+                .lastName("Hanks")
+                .email("tom@gmail.com")
+                .build();
+        employeeRepository.save(employee);
+        employeeRepository.save(employee2);
+        employeeRepository.save(employee3);
+
+        //when - action or the behavior we are testing
+        List<Employee> page = employeeRepository.findByIdGreaterThanOrderByIdAsc(employee.getId(), PageRequest.ofSize(1));
+
+        //then - verify the output
+        assertThat(page).hasSize(1);
+        assertThat(page.get(0).getId()).isEqualTo(employee2.getId());
+    }
+
+    //JUnit test for find fields operation
+    @DisplayName("JUnit test for find fields operation")
+    @Test
+    public void givenEmployeesList_whenFindFields_thenReturnOnlyTheSelectedFields() {
+        //given - precondition or setup
+        Employee employee2 = Employee.builder()
+                .firstName("Will")
+                .lastName("Smith")
+                .email("will@gmail.com")
+                .build();
+        employeeRepository.save(employee);
+        employeeRepository.save(employee2);
+
+        //when - action or the behavior we are testing
+        List<Map<String, Object>> rows = employeeRepository.findFields(List.of("id", "email"), 0L, 1);
+
+        //then - verify the output
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0)).containsOnlyKeys("id", "email");
+        assertThat(rows.get(0)).containsEntry("id", employee.getId()).containsEntry("email", "john@gmail.com");
+    }
+
+    //JUnit test for find fields operation with a field listed twice
+    @DisplayName("JUnit test for find fields operation with a duplicate field")
+    @Test
+    public void givenDuplicateField_whenFindFields_thenSelectFieldOnce() {
+        //given - precondition or setup
+        employeeRepository.save(employee);
+
+        //when - action or the behavior we are testing
+        List<Map<String, Object>> rows = employeeRepository.findFields(List.of("id", "id", "email"), 0L, 0);
+
+        //then - verify the output
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0)).containsOnlyKeys("id", "email");
+    }
+
+    //JUnit test for find fields operation with an unknown field
+    @DisplayName("JUnit test for find fields operation with an unknown field")
+    @Test
+    public void givenUnknownField_whenFindFields_thenThrowsException() {
+        //when - action or the behavior we are testing
+        //then - verify the output
+        //the repository proxy translates the IllegalArgumentException into Spring's DataAccessException hierarchy
+        assertThatThrownBy(() -> employeeRepository.findFields(List.of("id", "salary"), 0L, 0))
+                .isInstanceOf(InvalidDataAccessApiUsageException.class)
+                .hasRootCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    //JUnit test for stream all employees operation
+    @DisplayName("JUnit test for stream all employees operation")
+    @Test
+    public void givenEmployeesList_whenStreamAll_thenReturnEmployeesOrderedById() {
+        //given - precondition or setup
+        Employee employee2 = Employee.builder()
+                .firstName("Will")
+                .lastName("Smith")
+                .email("will@gmail.com")
+                .build();
+        employeeRepository.save(employee);
+        employeeRepository.save(employee2);
+
+        //when - action or the behavior we are testing
+        List<Long> ids;
+        try (Stream<Employee> employees = employeeRepository.streamAll()) {
+            ids = employees.map(Employee::getId).collect(Collectors.toList());
+        }
+
+        //then - verify the output
+        assertThat(ids).containsExactly(employee.getId(), employee2.getId());
+    }
+
     //JUnit test for get employee by id operation
     @DisplayName("JUnit test for get employee by id operation")
     @Test
@@ -119,6 +271,87 @@ public class EmployeeRepositoryTests {
         assertThat(updatedEmployee.getEmail()).isEqualTo("johnson@gmail.com");
     }
 
+    //JUnit test for single statement update employee operation
+    @DisplayName("JUnit test for single statement update employee operation")
+    @Test
+    public void givenEmployeeObject_whenUpdateById_thenReturnUpdatedRowCount() {
+        //given - precondition or setup
+        //Employee Object will be created by the setup method
+        employeeRepository.save(employee);
+
+        //when - action or the behavior we are testing
+        int updatedRows = employeeRepository.updateById(employee.getId(), "Johnson", "Cena", "johnson@gmail.com");
+        int missingRows = employeeRepository.updateById(employee.getId() + 1, "Johnson", "Cena", "johnson@gmail.com");
+
+        //then - verify the output
+        assertThat(updatedRows).isEqualTo(1);
+        assertThat(missingRows).isEqualTo(0);
+        assertThat(employeeRepository.findById(employee.getId()).get().getEmail()).isEqualTo("johnson@gmail.com");
+    }
+
+    //JUnit test for conditional single statement update employee operation
+    @DisplayName("JUnit test for conditional single statement update employee operation")
+    @Test
+    public void givenEmployeeObject_whenUpdateByIdAndVersion_thenOnlyCurrentVersionIsUpdated() {
+        //given - precondition or setup
+        //Employee Object will be created by the setup method
+        employeeRepository.save(employee);
+
+        //when - action or the behavior we are testing
+        int updatedRows = employeeRepository.updateByIdAndVersion(employee.getId(), 0L, "Johnson", "Cena", "johnson@gmail.com");
+        int staleRows = employeeRepository.updateByIdAndVersion(employee.getId(), 0L, "Johnny", "Cena", "johnny@gmail.com");
+
+        //then - verify the output
+        assertThat(updatedRows).isEqualTo(1);
+        assertThat(staleRows).isEqualTo(0);
+        Employee employeeDB = employeeRepository.findById(employee.getId()).get();
+        assertThat(employeeDB.getEmail()).isEqualTo("johnson@gmail.com");
+        assertThat(employeeDB.getVersion()).isEqualTo(1L);
+    }
+
+    //JUnit test for employees table watermark operation
+    @DisplayName("JUnit test for employees table watermark operation")
+    @Test
+    public void givenEmployeesList_whenFindEmployeesVersion_thenWatermarkChangesWithTheTable() {
+        //given - precondition or setup
+        Employee employee2 = Employee.builder()
+                .firstName("Will")
+                .lastName("Smith")
+                .email("will@gmail.com")
+                .build();
+        employeeRepository.save(employee);
+        employeeRepository.save(employee2);
+
+        //when - action or the behavior we are testing
+        EmployeesVersion before = employeeRepository.findEmployeesVersion();
+        employeeRepository.updateById(employee.getId(), "Johnson", "Cena", "johnson@gmail.com");
+        EmployeesVersion after = employeeRepository.findEmployeesVersion();
+
+        //then - verify the output
+        assertThat(before.getRowCount()).isEqualTo(2L);
+        assertThat(before.getMaxId()).isEqualTo(employee2.getId());
+        assertThat(before.getVersionSum()).isEqualTo(0L);
+        assertThat(after.getVersionSum()).isEqualTo(1L);
+    }
+
+    //JUnit test for single statement delete employee operation
+    @DisplayName("JUnit test for single statement delete employee operation")
+    @Test
+    public void givenEmployeeObject_whenDeleteEmployeeById_thenReturnDeletedRowCount() {
+        //given - precondition or setup
+        //Employee Object will be created by the setup method
+        employeeRepository.save(employee);
+
+        //when - action or the behavior we are testing
+        int deletedRows = employeeRepository.deleteEmployeeById(employee.getId());
+        int missingRows = employeeRepository.deleteEmployeeById(employee.getId());
+
+        //then - verify the output
+        assertThat(deletedRows).isEqualTo(1);
+        assertThat(missingRows).isEqualTo(0);
+        assertThat(employeeRepository.findById(employee.getId())).isEmpty();
+    }
+
     //JUnit test for delete employee operation
     @DisplayName("JUnit test for delete employee operation")
     @Test
@@ -194,4 +427,53 @@ public class EmployeeRepositoryTests {
         //then - verify the output
         assertThat(employeeDB).isNotNull();
     }
+
+    //JUnit test for findById served by the second-level cache
+    @DisplayName("JUnit test for findById served by the second-level cache")
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) //every repository call commits on its own, like separate requests
+    public void givenSavedEmployee_whenFindByIdInNewTransactions_thenNoStatementIsExecuted() {
+        //given - precondition or setup
+        Employee savedEmployee = employeeRepository.save(employee);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        try {
+            //when - action or the behavior we are testing
+            Optional<Employee> first = employeeRepository.findById(savedEmployee.getId());
+            Optional<Employee> second = employeeRepository.findById(savedEmployee.getId());
+
+            //then - verify the output
+            assertThat(first).isPresent();
+            assertThat(second).isPresent();
+            assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(2);
+            assertThat(statistics.getPrepareStatementCount()).isZero();
+        } finally {
+            employeeRepository.deleteById(savedEmployee.getId());
+        }
+    }
+
+    //JUnit test for findByEmail served by the query cache
+    @DisplayName("JUnit test for findByEmail served by the query cache")
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void givenSavedEmployee_whenFindByEmailTwice_thenSecondResultComesFromQueryCache() {
+        //given - precondition or setup
+        Employee savedEmployee = employeeRepository.save(employee);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        try {
+            //when - action or the behavior we are testing
+            employeeRepository.findByEmail(employee.getEmail());
+            Optional<Employee> cached = employeeRepository.findByEmail(employee.getEmail());
+
+            //then - verify the output
+            assertThat(cached).isPresent();
+            assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+            assertThat(statistics.getQueryExecutionCount()).isEqualTo(1);
+        } finally {
+            employeeRepository.deleteById(savedEmployee.getId());
+        }
+    }
 }
@@ -0,0 +1,163 @@
+package com.practice.springboot.routing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.practice.springboot.cache.EmployeeCache;
+import com.practice.springboot.model.Employee;
+import com.practice.springboot.service.EmployeeService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.servlet.http.Cookie;
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+//two separate H2 databases stand in for primary and replica, nothing replicates between them,
+//so where a row can be read from shows where the query was routed
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "employee.replica.enabled=true",
+        "employee.replica.url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:replica-schema.sql'",
+        "employee.replica.max-lag=1m",
+        "spring.datasource.hikari.connection-timeout=5000",
+        "spring.datasource.hikari.leak-detection-threshold=30000"})
+@AutoConfigureMockMvc
+public class ReplicaRoutingTests {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private HikariDataSource primaryDataSource;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    public void setup() {
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.update("delete from employees");
+    }
+
+    //JUnit test for read-only and write routing
+    @DisplayName("JUnit test for read-only and write routing")
+    @Test
+    public void givenRowOnlyOnReplica_whenReadAndWrite_thenReadsGoToReplicaAndWritesToPrimary() {
+        //given - precondition or setup
+        replica.update("insert into employees (id, first_name, last_name, email, version) values (1000, 'Will', 'Smith', 'will@gmail.com', 0)");
+
+        //when - action or the behavior we are testing
+        List<Employee> fromReplica = employeeService.getEmployeesAfter(999L, 10);
+        Employee saved = employeeService.saveEmployee(Employee.builder()
+                .firstName("John").lastName("Cena").email("john.routing@gmail.com").build());
+
+        //then - verify the output
+        assertThat(fromReplica).extracting(Employee::getId).containsExactly(1000L);
+        assertThat(replica.queryForObject("select count(*) from employees where id = ?", Long.class, saved.getId())).isZero();
+    }
+
+    //JUnit test for read-your-writes - the client that wrote reads from the primary
+    @DisplayName("JUnit test for read-your-writes stickiness")
+    @Test
+    public void givenWriteCookie_whenGetEmployeesPage_thenReadFromPrimary() throws Exception {
+        //given - precondition or setup
+        Employee employee = Employee.builder().firstName("Jane").lastName("Doe").email("jane.routing@gmail.com").build();
+        MvcResult created = mockMvc.perform(post("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(status().isCreated())
+                .andExpect(cookie().exists(ReplicaStickiness.COOKIE))
+                .andReturn();
+        Cookie lastWrite = created.getResponse().getCookie(ReplicaStickiness.COOKIE);
+
+        //when - action or the behavior we are testing
+        //then - verify the output
+        //with the cookie the page is read from the primary and has the new employee
+        mockMvc.perform(get("/api/employees").param("limit", "100").cookie(lastWrite))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].email", hasItem("jane.routing@gmail.com")));
+        //any other client reads from the replica, which does not have it
+        mockMvc.perform(get("/api/employees").param("limit", "100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].email", not(hasItem("jane.routing@gmail.com"))));
+    }
+
+    //JUnit test for the caches - a row the replica has not caught up on is never cached
+    @DisplayName("JUnit test for caching while the replica lags")
+    @Test
+    public void givenUpdateNotOnReplicaYet_whenReadDuringAndAfterLag_thenCachesKeepTheUpdate() {
+        //given - precondition or setup
+        Employee employee = employeeService.saveEmployee(Employee.builder()
+                .firstName("Old").lastName("Name").email("lag.routing@gmail.com").build());
+        //the replica has the row as it was saved, but not the update
+        replica.update("insert into employees (id, first_name, last_name, email, version) values (?, 'Old', 'Name', ?, 0)",
+                employee.getId(), employee.getEmail());
+        employeeService.updateEmployee(employee.getId(), Employee.builder()
+                .firstName("New").lastName("Name").email("lag.routing@gmail.com").build());
+        employeeCache.clear();
+        //the reads come from another client, which is not sticky to the primary
+        RequestContextHolder.resetRequestAttributes();
+
+        //when - action or the behavior we are testing
+        //during the lag: a page read from the replica loads the old row, then the same id is looked up
+        List<Employee> page = employeeService.getEmployeesAfter(0, 100);
+        Optional<Employee> duringLag = employeeService.getEmployeeById(employee.getId());
+        //after max lag the replica has the update
+        replica.update("update employees set first_name = 'New', version = 1 where id = ?", employee.getId());
+        Optional<Employee> afterLag = employeeService.getEmployeeById(employee.getId());
+
+        //then - verify the output
+        assertThat(page).extracting(Employee::getFirstName).containsExactly("Old");
+        assertThat(duringLag).get().extracting(Employee::getFirstName).isEqualTo("New");
+        assertThat(afterLag).get().extracting(Employee::getFirstName).isEqualTo("New");
+        assertThat(employeeCache.getById(employee.getId())).get().extracting(Employee::getFirstName).isEqualTo("New");
+    }
+
+    //JUnit test for the pools - spring.datasource.hikari.* applies to the primary and the replica
+    @DisplayName("JUnit test for the pool settings of primary and replica")
+    @Test
+    public void givenHikariProperties_whenReplicaEnabled_thenBothPoolsHaveThem() {
+        //when - action or the behavior we are testing
+        HikariDataSource replicaPool = (HikariDataSource) replicaDataSource;
+
+        //then - verify the output
+        for (HikariDataSource pool : List.of(primaryDataSource, replicaPool)) {
+            assertThat(pool.getConnectionTimeout()).isEqualTo(5000);
+            assertThat(pool.getLeakDetectionThreshold()).isEqualTo(30_000);
+        }
+        assertThat(primaryDataSource.getPoolName()).isEqualTo("primary");
+        assertThat(replicaPool.getPoolName()).isEqualTo("replica");
+        assertThat(replicaPool.isReadOnly()).isTrue();
+    }
+}
@@ -0,0 +1,132 @@
+package com.practice.springboot.search;
+
+import com.practice.springboot.model.Employee;
+import com.practice.springboot.model.EmployeeSearchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeSearchIndexTests {
+
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    @BeforeEach
+    public void setup() {
+        employeeSearchIndex = new EmployeeSearchIndex();
+        employeeSearchIndex.index(Employee.builder().id(1L).firstName("John").lastName("Cena").email("john@gmail.com").build());
+        employeeSearchIndex.index(Employee.builder().id(2L).firstName("Johnny").lastName("Depp").email("depp@yahoo.com").build());
+        employeeSearchIndex.index(Employee.builder().id(3L).firstName("Will").lastName("Smith").email("will@gmail.com").build());
+    }
+
+    //JUnit test for search with a prefix - exact matches are ranked first
+    @DisplayName("JUnit test for search with a prefix")
+    @Test
+    public void givenIndexedEmployees_whenSearchByPrefix_thenReturnRankedEmployees() {
+        //when - action or the behavior we are testing
+        EmployeeSearchResult result = employeeSearchIndex.search("john", 0, 10);
+
+        //then - verify the output
+        assertThat(result.getTotal()).isEqualTo(2);
+        assertThat(result.getEmployees()).extracting(Employee::getId).containsExactly(1L, 2L);
+    }
+
+    //JUnit test for search with several words - every word has to match
+    @DisplayName("JUnit test for search with several words")
+    @Test
+    public void givenSeveralWords_whenSearch_thenReturnEmployeesMatchingAllWords() {
+        //when - action or the behavior we are testing
+        EmployeeSearchResult result = employeeSearchIndex.search("Gmail W", 0, 10);
+
+        //then - verify the output
+        assertThat(result.getEmployees()).extracting(Employee::getId).containsExactly(3L);
+    }
+
+    //JUnit test for search with pagination
+    @DisplayName("JUnit test for search with pagination")
+    @Test
+    public void givenPageAndSize_whenSearch_thenReturnOnePage() {
+        //when - action or the behavior we are testing
+        EmployeeSearchResult result = employeeSearchIndex.search("jo", 1, 1);
+
+        //then - verify the output
+        assertThat(result.getTotal()).isEqualTo(2);
+        assertThat(result.getEmployees()).extracting(Employee::getId).containsExactly(2L);
+    }
+
+    //JUnit test for search with a page far beyond the results - page * size does not overflow
+    @DisplayName("JUnit test for search with a huge page number")
+    @Test
+    public void givenHugePage_whenSearch_thenReturnEmptyPage() {
+        //when - action or the behavior we are testing
+        EmployeeSearchResult result = employeeSearchIndex.search("john", 3_000_000, 1000);
+
+        //then - verify the output
+        assertThat(result.getTotal()).isEqualTo(2);
+        assertThat(result.getEmployees()).isEmpty();
+    }
+
+    //JUnit test for index and remove - old terms are no longer found
+    @DisplayName("JUnit test for index and remove")
+    @Test
+    public void givenUpdatedAndRemovedEmployees_whenSearch_thenOnlyCurrentTermsMatch() {
+        //given - precondition or setup
+        employeeSearchIndex.index(Employee.builder().id(1L).firstName("Jane").lastName("Cena").email("jane@gmail.com").build());
+        employeeSearchIndex.remove(2L);
+
+        //when - action or the behavior we are testing
+        EmployeeSearchResult result = employeeSearchIndex.search("john", 0, 10);
+
+        //then - verify the output
+        assertThat(result.getTotal()).isZero();
+        assertThat(employeeSearchIndex.search("jane@gm", 0, 10).getEmployees()).extracting(Employee::getId).containsExactly(1L);
+        assertThat(employeeSearchIndex.size()).isEqualTo(2);
+    }
+
+    //JUnit test for indexAll - the employees of a transaction are searchable once it commits
+    @DisplayName("JUnit test for indexAll in a transaction")
+    @Test
+    public void givenTransaction_whenIndexAll_thenEmployeesAreIndexedOnCommit() {
+        //given - precondition or setup
+        List<Employee> employees = List.of(Employee.builder().id(4L).firstName("Jane").lastName("Doe").email("jane@gmail.com").build());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            //when - action or the behavior we are testing
+            employeeSearchIndex.indexAll(employees);
+            int sizeBeforeCommit = employeeSearchIndex.size();
+            TransactionSynchronizationUtils.triggerAfterCommit();
+
+            //then - verify the output
+            assertThat(sizeBeforeCommit).isEqualTo(3);
+            assertThat(employeeSearchIndex.search("jane", 0, 10).getEmployees()).extracting(Employee::getId).containsExactly(4L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    //JUnit test for indexAll - the employees of a rolled back transaction are never indexed
+    @DisplayName("JUnit test for indexAll in a rolled back transaction")
+    @Test
+    public void givenRolledBackTransaction_whenIndexAll_thenEmployeesAreNotIndexed() {
+        //given - precondition or setup
+        List<Employee> employees = List.of(Employee.builder().id(4L).firstName("Jane").lastName("Doe").email("jane@gmail.com").build());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            //when - action or the behavior we are testing
+            employeeSearchIndex.indexAll(employees);
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        //then - verify the output
+        assertThat(employeeSearchIndex.search("jane", 0, 10).getTotal()).isZero();
+        assertThat(employeeSearchIndex.size()).isEqualTo(3);
+    }
+}
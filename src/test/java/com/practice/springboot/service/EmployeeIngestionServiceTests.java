@@ -0,0 +1,218 @@
+package com.practice.springboot.service;
+
+import com.practice.springboot.cache.EmployeeCache;
+import com.practice.springboot.changes.EmployeeChangeFeed;
+import com.practice.springboot.config.EmployeeProperties;
+import com.practice.springboot.exception.IngestionQueueFullException;
+import com.practice.springboot.exception.ResourceNotFoundException;
+import com.practice.springboot.model.Employee;
+import com.practice.springboot.model.EmployeeBatchResult;
+import com.practice.springboot.model.IngestionStatus;
+import com.practice.springboot.search.EmployeeSearchIndex;
+import com.practice.springboot.service.impl.EmployeeIngestionServiceImpl;
+import com.practice.springboot.service.impl.ShardedEmployeeServiceImpl;
+import com.practice.springboot.sharding.ShardedEmployeeRepository;
+import com.practice.springboot.sharding.SnowflakeIdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class EmployeeIngestionServiceTests {
+
+    private EmployeeService employeeService;
+
+    private EmployeeIngestionServiceImpl employeeIngestionService;
+
+    @BeforeEach
+    public void setup() {
+        employeeService = mock(EmployeeService.class);
+        EmployeeProperties employeeProperties = new EmployeeProperties();
+        employeeProperties.getIngest().setQueueCapacity(2);
+        employeeIngestionService = new EmployeeIngestionServiceImpl(employeeService, employeeProperties, new SimpleMeterRegistry());
+        employeeIngestionService.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        employeeIngestionService.shutdown();
+    }
+
+    //the worker writes in the background, wait until the submission left PENDING
+    private IngestionStatus awaitOutcome(String id) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        IngestionStatus status = employeeIngestionService.getStatus(id).orElseThrow();
+        while (status.getState() == IngestionStatus.State.PENDING && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            status = employeeIngestionService.getStatus(id).orElseThrow();
+        }
+        return status;
+    }
+
+    //JUnit test for submit - created outcome
+    @DisplayName("JUnit test for submit - created outcome")
+    @Test
+    public void givenSubmittedEmployees_whenBatchIsWritten_thenOutcomesCanBePolled() throws InterruptedException {
+        //given - precondition or setup
+        //the saved employee is a new instance with its id, the submitted one is left as it is
+        given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> {
+            Employee submitted = invocation.<List<Employee>>getArgument(0).get(0);
+            Employee saved = Employee.builder().id(1L).firstName(submitted.getFirstName())
+                    .lastName(submitted.getLastName()).email(submitted.getEmail()).build();
+            return new EmployeeBatchResult(List.of(saved), List.of());
+        });
+        Employee employee = Employee.builder().firstName("John").lastName("Cena").email("john@gmail.com").build();
+
+        //when - action or the behavior we are testing
+        IngestionStatus status = employeeIngestionService.submit(employee);
+        IngestionStatus created = awaitOutcome(status.getId());
+
+        //then - verify the output
+        assertThat(status.getState()).isEqualTo(IngestionStatus.State.PENDING);
+        assertThat(created.getState()).isEqualTo(IngestionStatus.State.CREATED);
+        assertThat(created.getEmployee().getId()).isEqualTo(1L);
+        assertThat(employee.getId()).isZero();
+    }
+
+    //JUnit test for submit - the sharded service saves copies of the submitted employees
+    @DisplayName("JUnit test for submit - sharded service")
+    @Test
+    public void givenShardedService_whenBatchIsWritten_thenCreatedOutcomesHaveTheNewIds() throws InterruptedException {
+        //given - precondition or setup
+        List<DataSource> shards = new ArrayList<>();
+        for (int shard = 0; shard < 2; shard++) {
+            DataSource dataSource = new DriverManagerDataSource(
+                    "jdbc:h2:mem:ingest-shard-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+            new ResourceDatabasePopulator(new ClassPathResource("sharding-schema.sql")).execute(dataSource);
+            shards.add(dataSource);
+        }
+        ExecutorService scatterExecutor = Executors.newFixedThreadPool(2);
+        EmployeeProperties employeeProperties = new EmployeeProperties();
+        ShardedEmployeeRepository repository = new ShardedEmployeeRepository(shards, new SnowflakeIdGenerator(0), scatterExecutor);
+        EmployeeService shardedService = new ShardedEmployeeServiceImpl(repository, new EmployeeCache(employeeProperties),
+                new EmployeeSearchIndex(), new EmployeeChangeFeed(employeeProperties));
+        shardedService.saveEmployee(Employee.builder().firstName("John").lastName("Cena").email("john@gmail.com").build());
+        EmployeeIngestionServiceImpl shardedIngestion = new EmployeeIngestionServiceImpl(shardedService, employeeProperties,
+                new SimpleMeterRegistry());
+        shardedIngestion.start();
+
+        try {
+            //when - action or the behavior we are testing
+            String first = shardedIngestion.submit(
+                    Employee.builder().firstName("Will").lastName("Smith").email("will@gmail.com").build()).getId();
+            String duplicate = shardedIngestion.submit(
+                    Employee.builder().firstName("John").lastName("Cena").email("john@gmail.com").build()).getId();
+            String second = shardedIngestion.submit(
+                    Employee.builder().firstName("Jane").lastName("Doe").email("jane@gmail.com").build()).getId();
+
+            //then - verify the output
+            for (String id : List.of(first, duplicate, second)) {
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (shardedIngestion.getStatus(id).orElseThrow().getState() == IngestionStatus.State.PENDING
+                        && System.nanoTime() < deadline) {
+                    Thread.sleep(10);
+                }
+            }
+            assertThat(shardedIngestion.getStatus(duplicate).orElseThrow().getState()).isEqualTo(IngestionStatus.State.REJECTED);
+            for (String id : List.of(first, second)) {
+                IngestionStatus created = shardedIngestion.getStatus(id).orElseThrow();
+                assertThat(created.getState()).isEqualTo(IngestionStatus.State.CREATED);
+                assertThat(created.getEmployee().getId()).isPositive();
+                assertThat(repository.findById(created.getEmployee().getId())).get()
+                        .extracting(Employee::getEmail).isEqualTo(created.getEmployee().getEmail());
+            }
+        } finally {
+            shardedIngestion.shutdown();
+            scatterExecutor.shutdown();
+        }
+    }
+
+    //JUnit test for submit - a failed batch is retried row by row, only the bad row fails
+    @DisplayName("JUnit test for submit - failed batch")
+    @Test
+    public void givenFailingBatch_whenWritten_thenOnlyTheBadRowFails() throws InterruptedException {
+        //given - precondition or setup
+        //the worker blocks in the first batch, so the next two submissions are written as one batch
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch writing = new CountDownLatch(1);
+        given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> {
+            List<Employee> employees = invocation.getArgument(0);
+            if (employees.get(0).getEmail().equals("first@gmail.com")) {
+                writing.countDown();
+                release.await();
+                return new EmployeeBatchResult(employees, List.of());
+            }
+            throw new DataIntegrityViolationException("duplicate email");
+        });
+        given(employeeService.saveEmployee(any(Employee.class))).willAnswer(invocation -> {
+            Employee employee = invocation.getArgument(0);
+            if (employee.getEmail().equals("john@gmail.com")) {
+                throw new ResourceNotFoundException("Employee already exists with the given email: john@gmail.com");
+            }
+            employee.setId(2L);
+            return employee;
+        });
+        employeeIngestionService.submit(Employee.builder().firstName("First").lastName("One").email("first@gmail.com").build());
+        writing.await(5, TimeUnit.SECONDS);
+        IngestionStatus duplicate = employeeIngestionService.submit(
+                Employee.builder().firstName("John").lastName("Cena").email("john@gmail.com").build());
+        IngestionStatus valid = employeeIngestionService.submit(
+                Employee.builder().firstName("Will").lastName("Smith").email("will@gmail.com").build());
+
+        //when - action or the behavior we are testing
+        release.countDown();
+
+        //then - verify the output
+        assertThat(awaitOutcome(duplicate.getId()).getState()).isEqualTo(IngestionStatus.State.REJECTED);
+        IngestionStatus created = awaitOutcome(valid.getId());
+        assertThat(created.getState()).isEqualTo(IngestionStatus.State.CREATED);
+        assertThat(created.getEmployee().getId()).isEqualTo(2L);
+    }
+
+    //JUnit test for submit - the queue is full
+    @DisplayName("JUnit test for submit - the queue is full")
+    @Test
+    public void givenFullQueue_whenSubmit_thenThrowsException() throws InterruptedException {
+        //given - precondition or setup
+        //the worker blocks in the first batch, so later submissions stay queued
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch writing = new CountDownLatch(1);
+        given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return new EmployeeBatchResult(invocation.getArgument(0), List.of());
+        });
+        Employee employee = Employee.builder().firstName("John").lastName("Cena").email("john@gmail.com").build();
+        employeeIngestionService.submit(employee);
+        writing.await(5, TimeUnit.SECONDS);
+        employeeIngestionService.submit(employee);
+        employeeIngestionService.submit(employee);
+
+        //when - action or the behavior we are testing
+        Assertions.assertThrows(IngestionQueueFullException.class, () -> employeeIngestionService.submit(employee));
+
+        //then - verify the output
+        release.countDown();
+    }
+}
@@ -1,9 +1,16 @@
 package com.practice.springboot.service;
 
-import com.practice.springboot.exception.EmployeeIdNotFoundException;
+import com.practice.springboot.cache.EmployeeCache;
+import com.practice.springboot.changes.EmployeeChangeFeed;
+import com.practice.springboot.config.EmployeeProperties;
+import com.practice.springboot.exception.EmployeeVersionConflictException;
 import com.practice.springboot.exception.ResourceNotFoundException;
 import com.practice.springboot.model.Employee;
+import com.practice.springboot.model.EmployeeBatchResult;
+import com.practice.springboot.model.EmployeeChangeEvent;
+import com.practice.springboot.model.EmployeeMultiGetResult;
 import com.practice.springboot.repository.EmployeeRepository;
+import com.practice.springboot.search.EmployeeSearchIndex;
 import com.practice.springboot.service.impl.EmployeeServiceImpl;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -20,11 +27,24 @@ import static org.mockito.Mockito.*;
 
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 @ExtendWith(MockitoExtension.class) //this is used to tell Mockito that we are using Mockito annotations to mock the dependencies
 public class EmployeeServiceTests { //basically we want to extend our class behavior from MockitoExtension class
@@ -32,6 +52,24 @@ public class EmployeeServiceTests { //basically we want to extend our class beha
     @Mock
     private EmployeeRepository employeeRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private EmployeeProperties employeeProperties = new EmployeeProperties();
+
+    @Spy
+    private EmployeeCache employeeCache = new EmployeeCache(new EmployeeProperties());
+
+    @Spy
+    private EmployeeSearchIndex employeeSearchIndex = new EmployeeSearchIndex();
+
+    @Spy
+    private EmployeeChangeFeed employeeChangeFeed = new EmployeeChangeFeed(new EmployeeProperties());
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks //@InjectMocks creates object of the class and inject the mocks that are marked with @Mock into it
     private EmployeeServiceImpl employeeService;
 
@@ -65,14 +103,11 @@ public class EmployeeServiceTests { //basically we want to extend our class beha
         Mockito provides when–then (or in BDD style given-will) stubbing pattern to stub a mock object’s method invocation.
         */
         //given - precondition or setup
-            //we need to stub 2 method calls.
-            //The saveEmployee method internally uses 2 employeeRepository methods, "findByEmail" and "save"
-
-        //when invoking findByEmail method, it should return empty Optional
-        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.empty());
+            //The saveEmployee method internally uses the employeeRepository "saveAndFlush" method,
+            //the unique constraint on email replaces the findByEmail pre-check
 
-        //when invoking save method, it should return the saved employee object
-        given(employeeRepository.save(employee)).willReturn(employee);
+        //when invoking saveAndFlush method, it should return the saved employee object
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
 
         //when - action or the behavior we are testing
         Employee savedEmployee = employeeService.saveEmployee(employee);
@@ -81,13 +116,47 @@ public class EmployeeServiceTests { //basically we want to extend our class beha
         assertThat(savedEmployee).isNotNull();
     }
 
+    //JUnit test for saveEmployee method - the created employee is published to the change feed
+    @DisplayName("JUnit test for saveEmployee method - the created employee is published to the change feed")
+    @Test
+    public void givenEmployeeObject_whenSaveEmployee_thenChangeIsPublished() {
+        //given - precondition or setup
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
+
+        //when - action or the behavior we are testing
+        employeeService.saveEmployee(employee);
+
+        //then - verify the output
+        List<EmployeeChangeEvent> changes = employeeChangeFeed.readAfter(0, 10).orElseThrow();
+        assertThat(changes).hasSize(1);
+        assertThat(changes.get(0).getType()).isEqualTo(EmployeeChangeEvent.Type.CREATED);
+        assertThat(changes.get(0).getEmployee()).isEqualTo(employee);
+    }
+
+    //JUnit test for saveEmployee method - the saved employee can be searched
+    @DisplayName("JUnit test for saveEmployee method - the saved employee can be searched")
+    @Test
+    public void givenEmployeeObject_whenSaveEmployee_thenEmployeeIsSearchable() {
+        //given - precondition or setup
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
+
+        //when - action or the behavior we are testing
+        employeeService.saveEmployee(employee);
+
+        //then - verify the output
+        assertThat(employeeService.searchEmployees("jo ce", 0, 10).getEmployees())
+                .extracting(Employee::getId).containsExactly(1L);
+    }
+
     //JUnit test for saveEmployee method which throws exception
     @DisplayName("JUnit test for saveEmployee method which throws exception")
     @Test
     public void givenExistingEmail_whenSaveEmployee_thenThrowsException() {
 
         //given - precondition or setup
-        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.of(employee));
+        //the database rejects the insert with a violation of the unique constraint on email
+        given(employeeRepository.saveAndFlush(employee)).willThrow(new DataIntegrityViolationException("duplicate email",
+                new ConstraintViolationException("duplicate email", new SQLException(), "PUBLIC.UK_EMPLOYEES_EMAIL_INDEX_1")));
 
         //when - action or the behavior we are testing
         //assertThrows(expected type, Executable executable "aka lambda expression")
@@ -95,9 +164,97 @@ public class EmployeeServiceTests { //basically we want to extend our class beha
             employeeService.saveEmployee(employee);
         });
 
-        //then - verify that we will never reach the save() method because we have thrown the exception
+        //then - verify that the failed employee was not cached
         //verify(mocked object, #of invocations of the mocked object's method).method()
-        verify(employeeRepository, never()).save(any(Employee.class));
+        verify(employeeCache, never()).put(any(Employee.class));
+    }
+
+    //JUnit test for saveEmployee method with a stale cached email - the unique constraint decides, not the cache
+    @DisplayName("JUnit test for saveEmployee method with a stale cached email")
+    @Test
+    public void givenStaleCachedEmail_whenSaveEmployee_thenSaveEmployee() {
+        //given - precondition or setup
+        //the cached owner of the email has changed its email or was deleted since
+        employeeCache.put(Employee.builder().id(9L).firstName("Old").lastName("Owner").email(employee.getEmail()).build());
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
+
+        //when - action or the behavior we are testing
+        Employee savedEmployee = employeeService.saveEmployee(employee);
+
+        //then - verify the output
+        assertThat(savedEmployee).isSameAs(employee);
+        verify(employeeRepository, times(1)).saveAndFlush(employee);
+    }
+
+    //JUnit test for saveEmployees method
+    @DisplayName("JUnit test for saveEmployees method")
+    @Test
+    public void givenEmployeesWithDuplicateEmails_whenSaveEmployees_thenRejectDuplicates() {
+        //given - precondition or setup
+        Employee employee2 = Employee.builder()
+                .firstName("Will")
+                .lastName("Smith")
+                .email("will@gmail.com")
+                .build();
+        Employee employee3 = Employee.builder()
+                .firstName("Johnny")
+                .lastName("Cena")
+                .email("john@gmail.com")
+                .build();
+        //will@gmail.com is already in the database, john@gmail.com is used twice in the same request
+        given(employeeRepository.findExistingEmails(List.of("john@gmail.com", "will@gmail.com")))
+                .willReturn(List.of("will@gmail.com"));
+
+        //when - action or the behavior we are testing
+        EmployeeBatchResult result = employeeService.saveEmployees(List.of(employee, employee2, employee3));
+
+        //then - verify the output
+        assertThat(result.getSaved()).containsExactly(employee);
+        assertThat(result.getRejected()).extracting("index").containsExactly(1, 2);
+        verify(entityManager, times(1)).persist(employee);
+        verify(entityManager, never()).persist(employee2);
+        verify(entityManager, never()).persist(employee3);
+    }
+
+    //JUnit test for saveEmployees method - batching turned off
+    @DisplayName("JUnit test for saveEmployees method with batch size 0")
+    @Test
+    public void givenBatchSizeZero_whenSaveEmployees_thenFlushOnceAtTheEnd() {
+        //given - precondition or setup
+        employeeProperties.getBatch().setSize(0);
+        Employee employee2 = Employee.builder()
+                .firstName("Will")
+                .lastName("Smith")
+                .email("will@gmail.com")
+                .build();
+        given(employeeRepository.findExistingEmails(anyList())).willReturn(List.of());
+
+        //when - action or the behavior we are testing
+        EmployeeBatchResult result = employeeService.saveEmployees(List.of(employee, employee2));
+
+        //then - verify the output
+        assertThat(result.getSaved()).containsExactly(employee, employee2);
+        verify(entityManager, times(1)).flush();
+    }
+
+    //JUnit test for getEmployeeById method - a load racing an update does not cache the old row
+    @DisplayName("JUnit test for getEmployeeById method racing an update")
+    @Test
+    public void givenUpdateDuringLoad_whenGetEmployeeById_thenOldRowIsNotCached() {
+        //given - precondition or setup
+        given(employeeRepository.findById(1L)).willAnswer(invocation -> {
+            //the update commits after the row was read
+            given(employeeRepository.updateById(1L, "Johnny", "Cena", "john@gmail.com")).willReturn(1);
+            employeeService.updateEmployee(1L, Employee.builder().firstName("Johnny").lastName("Cena").email("john@gmail.com").build());
+            return Optional.of(employee);
+        });
+
+        //when - action or the behavior we are testing
+        Optional<Employee> loaded = employeeService.getEmployeeById(1L);
+
+        //then - verify the output
+        assertThat(loaded).contains(employee);
+        assertThat(employeeCache.getById(1L)).isEmpty();
     }
 
     //JUnit test for getAllEmployees method
@@ -119,6 +276,7 @@ public class EmployeeServiceTests { //basically we want to extend our class beha
         //then - verify the output
         assertThat(employeeList).isNotNull();
         assertThat(employeeList.size()).isEqualTo(2);
+        assertThat(meterRegistry.get("employee.service.rows").summary().totalAmount()).isEqualTo(2);
     }
 
     //JUnit test for getAllEmployees method - negative scenario
@@ -136,6 +294,43 @@ public class EmployeeServiceTests { //basically we want to extend our class beha
         assertThat(employeeList.size()).isEqualTo(0);
     }
 
+    //JUnit test for getEmployeesAfter method
+    @DisplayName("JUnit test for getEmployeesAfter method")
+    @Test
+    public void givenAfterIdAndLimit_whenGetEmployeesAfter_thenReturnEmployeesPage() {
+        //given - precondition or setup
+        given(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.ofSize(1))).willReturn(List.of(employee));
+
+        //when - action or the behavior we are testing
+        List<Employee> employeeList = employeeService.getEmployeesAfter(0L, 1);
+
+        //then - verify the output
+        assertThat(employeeList).containsExactly(employee);
+    }
+
+    //JUnit test for streamAllEmployees method
+    @DisplayName("JUnit test for streamAllEmployees method")
+    @Test
+    public void givenEmployeesStream_whenStreamAllEmployees_thenConsumeAndDetachEveryEmployee() {
+        //given - precondition or setup
+        Employee employee2 = Employee.builder()
+                .id(2L)
+                .firstName("Will")
+                .lastName("Smith")
+                .email("will@gmail.com")
+                .build();
+        given(employeeRepository.streamAll()).willReturn(Stream.of(employee, employee2));
+
+        //when - action or the behavior we are testing
+        List<Employee> consumed = new ArrayList<>();
+        employeeService.streamAllEmployees(consumed::add);
+
+        //then - verify the output
+        assertThat(consumed).containsExactly(employee, employee2);
+        verify(entityManager, times(1)).detach(employee);
+        verify(entityManager, times(1)).detach(employee2);
+    }
+
     //JUnit test for getEmployeeById method - no exception
     @DisplayName("JUnit test for getEmployeeById method - no exception")
     @Test
@@ -150,18 +345,92 @@ public class EmployeeServiceTests { //basically we want to extend our class beha
         assertThat(savedEmployee).isNotNull();
     }
 
-    //JUnit test for getEmployeeById method - exception thrown case
-    @DisplayName("JUnit test for getEmployeeById method - exception thrown case")
+    //JUnit test for getEmployeeById method - served from the cache
+    @DisplayName("JUnit test for getEmployeeById method - served from the cache")
     @Test
-    public void givenInvalidEmployeeId_whenGetEmployeeById_thenThrowException() {
+    public void givenCachedEmployee_whenGetEmployeeById_thenRepositoryIsNotCalled() {
+        //given
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+        employeeService.getEmployeeById(1L);
+
+        //when
+        Employee cachedEmployee = employeeService.getEmployeeById(1L).get();
+
+        //then
+        assertThat(cachedEmployee.getEmail()).isEqualTo(employee.getEmail());
+        verify(employeeRepository, times(1)).findById(1L);
+    }
+
+    //JUnit test for getEmployeeById method - unknown id case
+    @DisplayName("JUnit test for getEmployeeById method - unknown id case")
+    @Test
+    public void givenInvalidEmployeeId_whenGetEmployeeById_thenReturnEmpty() {
         //given
         given(employeeRepository.findById(2L)).willReturn(Optional.empty());
 
         //when
-        Assertions.assertThrows(EmployeeIdNotFoundException.class, () -> employeeService.getEmployeeById(2L));
+        Optional<Employee> employee = employeeService.getEmployeeById(2L);
+
+        //then an unknown id is an empty result, no exception is thrown
+        assertThat(employee).isEmpty();
+    }
 
-        //then getEmployeeById will never return an employeeObject
+    //JUnit test for getEmployeeById method - distinct ids within the batch window share one query
+    @DisplayName("JUnit test for getEmployeeById method with a batch window")
+    @Test
+    public void givenBatchWindow_whenGetDistinctEmployeeIdsConcurrently_thenOneFindAllByIdQuery() throws Exception {
+        //given - precondition or setup
+        EmployeeProperties batchingProperties = new EmployeeProperties();
+        batchingProperties.getCache().setBatchWindow(Duration.ofMillis(200));
+        EmployeeServiceImpl batchingService = new EmployeeServiceImpl(employeeRepository, entityManager, batchingProperties,
+                new EmployeeCache(batchingProperties), employeeSearchIndex, employeeChangeFeed, new SimpleMeterRegistry());
+        Employee employee2 = Employee.builder().id(2L).firstName("Will").lastName("Smith").email("will@gmail.com").build();
+        given(employeeRepository.findAllById(any())).willReturn(List.of(employee, employee2));
+
+        //when - action or the behavior we are testing
+        CompletableFuture<Optional<Employee>> first = CompletableFuture.supplyAsync(() -> batchingService.getEmployeeById(1L));
+        CompletableFuture<Optional<Employee>> second = CompletableFuture.supplyAsync(() -> batchingService.getEmployeeById(2L));
+
+        //then - verify the output
+        assertThat(first.get(5, TimeUnit.SECONDS)).contains(employee);
+        assertThat(second.get(5, TimeUnit.SECONDS)).contains(employee2);
+        verify(employeeRepository, times(1)).findAllById(any());
+        verify(employeeRepository, never()).findById(anyLong());
+        batchingService.shutdown();
+    }
+
+    //JUnit test for getEmployeesByIds method - cache first, one query for the rest, missing ids listed
+    @DisplayName("JUnit test for getEmployeesByIds method")
+    @Test
+    public void givenCachedUncachedAndMissingIds_whenGetEmployeesByIds_thenOneQueryAndMissingIdsListed() {
+        //given - precondition or setup
+        Employee employee2 = Employee.builder().id(2L).firstName("Will").lastName("Smith").email("will@gmail.com").build();
+        employeeCache.put(employee);
+        given(employeeRepository.findAllById(List.of(3L, 2L))).willReturn(List.of(employee2));
+
+        //when - action or the behavior we are testing
+        EmployeeMultiGetResult result = employeeService.getEmployeesByIds(List.of(3L, 2L, 1L, 2L));
+
+        //then - verify the output
+        assertThat(result.getEmployees()).extracting(Employee::getId).containsExactly(2L, 1L);
+        assertThat(result.getMissing()).containsExactly(3L);
+        verify(employeeRepository, never()).findById(anyLong());
+    }
+
+    //JUnit test for getEmployeeByEmail method - loaded once, then served from the cache
+    @DisplayName("JUnit test for getEmployeeByEmail method")
+    @Test
+    public void givenEmployeeEmail_whenGetEmployeeByEmailTwice_thenRepositoryIsCalledOnce() {
+        //given - precondition or setup
+        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.of(employee));
+
+        //when - action or the behavior we are testing
+        employeeService.getEmployeeByEmail(employee.getEmail());
+        Optional<Employee> cachedEmployee = employeeService.getEmployeeByEmail(employee.getEmail());
 
+        //then - verify the output
+        assertThat(cachedEmployee).isPresent();
+        verify(employeeRepository, times(1)).findByEmail(employee.getEmail());
     }
 
     //JUnit test for updateEmployee method
@@ -180,6 +449,83 @@ public class EmployeeServiceTests { //basically we want to extend our class beha
         assertThat(updatedEmployee.getEmail()).isEqualTo("cena@gmail.com");
     }
 
+    //JUnit test for updateEmployee by id method - single statement update
+    @DisplayName("JUnit test for updateEmployee by id method")
+    @Test
+    public void givenEmployeeIdAndObject_whenUpdateEmployee_thenReturnUpdatedEmployee() {
+        //given - precondition or setup
+        given(employeeRepository.updateById(1L, "John", "Cena", "cena@gmail.com")).willReturn(1);
+        employee.setEmail("cena@gmail.com");
+
+        //when - action or the behavior we are testing
+        Optional<Employee> updatedEmployee = employeeService.updateEmployee(1L, employee);
+
+        //then - verify the output
+        assertThat(updatedEmployee).isPresent();
+        assertThat(updatedEmployee.get().getId()).isEqualTo(1L);
+        assertThat(updatedEmployee.get().getEmail()).isEqualTo("cena@gmail.com");
+        verify(employeeRepository, never()).findById(1L);
+    }
+
+    //JUnit test for updateEmployee by id method - no employee with this id
+    @DisplayName("JUnit test for updateEmployee by id method - no employee with this id")
+    @Test
+    public void givenInvalidEmployeeId_whenUpdateEmployee_thenReturnEmpty() {
+        //given - precondition or setup
+        given(employeeRepository.updateById(2L, "John", "Cena", "john@gmail.com")).willReturn(0);
+
+        //when - action or the behavior we are testing
+        Optional<Employee> updatedEmployee = employeeService.updateEmployee(2L, employee);
+
+        //then - verify the output
+        assertThat(updatedEmployee).isEmpty();
+        assertThat(employeeCache.getById(2L)).isEmpty();
+    }
+
+    //JUnit test for conditional updateEmployee method - expected version matches
+    @DisplayName("JUnit test for conditional updateEmployee method - expected version matches")
+    @Test
+    public void givenExpectedVersion_whenUpdateEmployee_thenReturnEmployeeWithNextVersion() {
+        //given - precondition or setup
+        given(employeeRepository.updateByIdAndVersion(1L, 3L, "John", "Cena", "john@gmail.com")).willReturn(1);
+
+        //when - action or the behavior we are testing
+        Optional<Employee> updatedEmployee = employeeService.updateEmployee(1L, employee, 3L);
+
+        //then - verify the output
+        assertThat(updatedEmployee).isPresent();
+        assertThat(updatedEmployee.get().getVersion()).isEqualTo(4L);
+        assertThat(employeeCache.getById(1L).get().getVersion()).isEqualTo(4L);
+    }
+
+    //JUnit test for conditional updateEmployee method - the row has another version
+    @DisplayName("JUnit test for conditional updateEmployee method - the row has another version")
+    @Test
+    public void givenStaleVersion_whenUpdateEmployee_thenThrowException() {
+        //given - precondition or setup
+        given(employeeRepository.updateByIdAndVersion(1L, 2L, "John", "Cena", "john@gmail.com")).willReturn(0);
+        given(employeeRepository.existsById(1L)).willReturn(true);
+
+        //when - action or the behavior we are testing
+        //then - verify the output
+        Assertions.assertThrows(EmployeeVersionConflictException.class, () -> employeeService.updateEmployee(1L, employee, 2L));
+    }
+
+    //JUnit test for conditional updateEmployee method - no employee with this id
+    @DisplayName("JUnit test for conditional updateEmployee method - no employee with this id")
+    @Test
+    public void givenInvalidEmployeeIdAndVersion_whenUpdateEmployee_thenReturnEmpty() {
+        //given - precondition or setup
+        given(employeeRepository.updateByIdAndVersion(2L, 0L, "John", "Cena", "john@gmail.com")).willReturn(0);
+        given(employeeRepository.existsById(2L)).willReturn(false);
+
+        //when - action or the behavior we are testing
+        Optional<Employee> updatedEmployee = employeeService.updateEmployee(2L, employee, 0L);
+
+        //then - verify the output
+        assertThat(updatedEmployee).isEmpty();
+    }
+
     //JUnit test for deleteEmployee - no exception thrown
     @DisplayName("JUnit test for deleteEmployee - no exception thrown")
     @Test
@@ -192,29 +538,37 @@ public class EmployeeServiceTests { //basically we want to extend our class beha
         */
         //given - precondition or setup
         long employeeId = 1L;
-        given(employeeRepository.findById(employeeId)).willReturn(Optional.of(employee));
-        willDoNothing().given(employeeRepository).deleteById(employeeId);
+        //the delete statement removed one row
+        given(employeeRepository.deleteEmployeeById(employeeId)).willReturn(1);
 
         //when - action or the behavior we are testing
-        employeeService.deleteEmployee(employeeId);
+        boolean deleted = employeeService.deleteEmployee(employeeId);
 
         //then - verify the output
-        verify(employeeRepository, times(1)).deleteById(employeeId);
+        assertThat(deleted).isTrue();
+        verify(employeeRepository, times(1)).deleteEmployeeById(employeeId);
+        verify(employeeRepository, never()).findById(employeeId);
+        assertThat(employeeCache.getById(employeeId)).isEmpty();
+        verify(employeeSearchIndex).remove(employeeId);
     }
 
-    //JUnit test for deleteEmployee - no exception thrown
-    @DisplayName("JUnit test for deleteEmployee - exception thrown")
+    //JUnit test for deleteEmployee - unknown id case
+    @DisplayName("JUnit test for deleteEmployee - unknown id case")
     @Test
-    public void givenInvalidEmployeeId_whenDeleteEmployee_thenThrowException() {
+    public void givenInvalidEmployeeId_whenDeleteEmployee_thenReturnFalse() {
 
         //given - precondition or setup
         long employeeId = 2L;
-        given(employeeRepository.findById(employeeId)).willReturn(Optional.empty());
+        //the delete statement did not find a row to remove
+        given(employeeRepository.deleteEmployeeById(employeeId)).willReturn(0);
 
         //when - action or the behavior we are testing
-        Assertions.assertThrows(EmployeeIdNotFoundException.class, () -> employeeService.deleteEmployee(employeeId));
+        boolean deleted = employeeService.deleteEmployee(employeeId);
 
         //then - verify the output
+        assertThat(deleted).isFalse();
         verify(employeeRepository, never()).deleteById(employeeId);
+        //nothing changed, so nothing is published
+        assertThat(employeeChangeFeed.getLastSequence()).isZero();
     }
 }
@@ -0,0 +1,60 @@
+package com.practice.springboot.service;
+
+import com.practice.springboot.model.Employee;
+import com.practice.springboot.model.EmployeeBatchResult;
+import com.practice.springboot.model.EmployeeImportResult;
+import com.practice.springboot.service.impl.EmployeeTransferServiceImpl;
+import com.practice.springboot.transfer.TransferFormat;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeTransferServiceTests {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    @InjectMocks
+    private EmployeeTransferServiceImpl employeeTransferService;
+
+    //JUnit test for importEmployees - a row without a required field is rejected, the other rows are written
+    @DisplayName("JUnit test for importEmployees - missing required field")
+    @Test
+    public void givenCsvRowWithEmptyEmail_whenImportEmployees_thenRowIsRejectedBeforeSaving() throws IOException {
+        //given - precondition or setup
+        byte[] csv = ("id,firstName,lastName,email\n"
+                + "1,John,Cena,john@gmail.com\n"
+                + "2,Will,Smith,\n"
+                + "3,,Doe,jane@gmail.com\n").getBytes(StandardCharsets.UTF_8);
+        given(employeeService.saveEmployees(anyList()))
+                .willAnswer(invocation -> new EmployeeBatchResult(invocation.getArgument(0), List.of()));
+
+        //when - action or the behavior we are testing
+        EmployeeImportResult result = employeeTransferService.importEmployees(TransferFormat.CSV,
+                Channels.newChannel(new ByteArrayInputStream(csv)));
+
+        //then - verify the output
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Employee>> chunk = ArgumentCaptor.forClass(List.class);
+        verify(employeeService).saveEmployees(chunk.capture());
+        assertThat(chunk.getValue()).extracting(Employee::getEmail).containsExactly("john@gmail.com");
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getRejected()).isEqualTo(2);
+    }
+}
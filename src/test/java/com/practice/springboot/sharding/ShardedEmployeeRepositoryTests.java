@@ -0,0 +1,231 @@
+package com.practice.springboot.sharding;
+
+import com.practice.springboot.model.Employee;
+import com.practice.springboot.model.EmployeesVersion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ShardedEmployeeRepositoryTests {
+
+    private List<DataSource> dataSources;
+
+    private ExecutorService scatterExecutor;
+
+    private ShardedEmployeeRepository shardedEmployeeRepository;
+
+    @BeforeEach
+    public void setup() {
+        //three separate in-memory databases, new ones for every test
+        dataSources = new ArrayList<>();
+        for (int shard = 0; shard < 3; shard++) {
+            DataSource dataSource = new DriverManagerDataSource(
+                    "jdbc:h2:mem:shard-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+            new ResourceDatabasePopulator(new ClassPathResource("sharding-schema.sql")).execute(dataSource);
+            dataSources.add(dataSource);
+        }
+        scatterExecutor = Executors.newFixedThreadPool(3);
+        shardedEmployeeRepository = new ShardedEmployeeRepository(dataSources, new SnowflakeIdGenerator(0), scatterExecutor);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scatterExecutor.shutdown();
+        dataSources.forEach(dataSource -> new JdbcTemplate(dataSource).execute("shutdown"));
+    }
+
+    private static Employee employee(int number) {
+        return Employee.builder().firstName("John").lastName("Cena" + number).email("john" + number + "@gmail.com").build();
+    }
+
+    private int claimsOnAllShards() {
+        int claims = 0;
+        for (DataSource dataSource : dataSources) {
+            claims += new JdbcTemplate(dataSource).queryForObject("select count(*) from employee_emails", Integer.class);
+        }
+        return claims;
+    }
+
+    private int rowsOnShard(int shard) {
+        return new JdbcTemplate(dataSources.get(shard)).queryForObject("select count(*) from employees", Integer.class);
+    }
+
+    //JUnit test for insert - every row lands on the shard of its id and can be found by id and email
+    @DisplayName("JUnit test for insert and lookups by id and email")
+    @Test
+    public void givenInsertedEmployees_whenFindByIdAndEmail_thenReturnEmployeeFromItsShard() {
+        //given - precondition or setup
+        List<Employee> inserted = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            inserted.add(shardedEmployeeRepository.insert(employee(i)));
+        }
+
+        //when - action or the behavior we are testing
+        Employee employee = inserted.get(7);
+
+        //then - verify the output
+        assertThat(shardedEmployeeRepository.findById(employee.getId())).get()
+                .extracting(Employee::getEmail).isEqualTo("john7@gmail.com");
+        assertThat(shardedEmployeeRepository.findByEmail("john7@gmail.com")).get()
+                .extracting(Employee::getId).isEqualTo(employee.getId());
+        assertThat(shardedEmployeeRepository.findById(42L)).isEmpty();
+        for (int shard = 0; shard < 3; shard++) {
+            assertThat(rowsOnShard(shard)).isPositive();
+        }
+        assertThat(rowsOnShard(0) + rowsOnShard(1) + rowsOnShard(2)).isEqualTo(60);
+    }
+
+    //JUnit test for insert and insertAll - an email can only be used once, across all shards
+    @DisplayName("JUnit test for insert with a taken email")
+    @Test
+    public void givenTakenEmail_whenInsert_thenRejectEmployee() {
+        //given - precondition or setup
+        shardedEmployeeRepository.insert(employee(1));
+
+        //when - action or the behavior we are testing
+        List<Employee> inserted = shardedEmployeeRepository.insertAll(List.of(employee(2), employee(1), employee(2)));
+
+        //then - verify the output
+        assertThatThrownBy(() -> shardedEmployeeRepository.insert(employee(1))).isInstanceOf(DuplicateKeyException.class);
+        assertThat(inserted.get(0)).isNotNull();
+        assertThat(inserted.get(1)).isNull();
+        assertThat(inserted.get(2)).isNull();
+        assertThat(shardedEmployeeRepository.findAll()).hasSize(2);
+    }
+
+    //JUnit test for findAll and findAfter - the rows of all shards come back in id order
+    @DisplayName("JUnit test for findAfter across shards")
+    @Test
+    public void givenEmployeesOnAllShards_whenFindAfter_thenPagesAreInIdOrder() {
+        //given - precondition or setup
+        List<Employee> inserted = new ArrayList<>(shardedEmployeeRepository.insertAll(
+                IntStream.range(0, 50).mapToObj(ShardedEmployeeRepositoryTests::employee).toList()));
+        inserted.sort(Comparator.comparingLong(Employee::getId));
+
+        //when - action or the behavior we are testing
+        List<Employee> paged = new ArrayList<>();
+        long afterId = 0;
+        List<Employee> page;
+        while (!(page = shardedEmployeeRepository.findAfter(afterId, 7)).isEmpty()) {
+            paged.addAll(page);
+            afterId = page.get(page.size() - 1).getId();
+        }
+
+        //then - verify the output
+        assertThat(paged).extracting(Employee::getId).containsExactlyElementsOf(
+                inserted.stream().map(Employee::getId).toList());
+        assertThat(shardedEmployeeRepository.findAll()).extracting(Employee::getId).isSorted().hasSize(50);
+        assertThat(shardedEmployeeRepository.findAllById(List.of(inserted.get(3).getId(), 42L)))
+                .extracting(Employee::getId).containsExactly(inserted.get(3).getId());
+    }
+
+    //JUnit test for update - a stale version is refused, a new email moves the claim
+    @DisplayName("JUnit test for update with a version and an email change")
+    @Test
+    public void givenEmployee_whenUpdate_thenVersionIsCheckedAndEmailClaimMoves() {
+        //given - precondition or setup
+        Employee employee = shardedEmployeeRepository.insert(employee(1));
+        Employee changes = Employee.builder().firstName("Johnny").lastName("Cena").email("johnny@gmail.com").build();
+
+        //when - action or the behavior we are testing
+        boolean updated = shardedEmployeeRepository.update(employee, changes);
+        boolean staleUpdate = shardedEmployeeRepository.update(employee, employee(2));
+
+        //then - verify the output
+        assertThat(updated).isTrue();
+        assertThat(staleUpdate).isFalse();
+        assertThat(shardedEmployeeRepository.findById(employee.getId())).get()
+                .extracting(Employee::getEmail, Employee::getVersion).containsExactly("johnny@gmail.com", 1L);
+        assertThat(shardedEmployeeRepository.findByEmail("john1@gmail.com")).isEmpty();
+        //the old email is free again, the one the stale update tried to claim was released
+        assertThat(shardedEmployeeRepository.insert(employee(1))).isNotNull();
+        assertThat(shardedEmployeeRepository.insert(employee(2))).isNotNull();
+    }
+
+    //JUnit test for deleteById and findEmployeesVersion - the watermark adds up the shards
+    @DisplayName("JUnit test for deleteById and findEmployeesVersion")
+    @Test
+    public void givenEmployees_whenDeleteById_thenEmailIsReleasedAndVersionChanges() {
+        //given - precondition or setup
+        Employee first = shardedEmployeeRepository.insert(employee(1));
+        Employee second = shardedEmployeeRepository.insert(employee(2));
+        EmployeesVersion before = shardedEmployeeRepository.findEmployeesVersion();
+
+        //when - action or the behavior we are testing
+        boolean deleted = shardedEmployeeRepository.deleteById(first.getId());
+        boolean deletedAgain = shardedEmployeeRepository.deleteById(first.getId());
+
+        //then - verify the output
+        assertThat(deleted).isTrue();
+        assertThat(deletedAgain).isFalse();
+        assertThat(before.getRowCount()).isEqualTo(2);
+        assertThat(before.getMaxId()).isEqualTo(second.getId());
+        assertThat(shardedEmployeeRepository.findEmployeesVersion().getRowCount()).isEqualTo(1);
+        assertThat(shardedEmployeeRepository.insert(employee(1))).isNotNull();
+    }
+
+    //JUnit test for deleteById - a claim of the employee that is not its current email is released too
+    @DisplayName("JUnit test for deleteById with an email changed meanwhile")
+    @Test
+    public void givenClaimOfConcurrentEmailChange_whenDeleteById_thenEveryClaimIsReleased() {
+        //given - precondition or setup
+        Employee employee = shardedEmployeeRepository.insert(employee(1));
+        //an update of the email that has claimed the new email but not yet written the row
+        String newEmail = "johnny@gmail.com";
+        new JdbcTemplate(dataSources.get(shardedEmployeeRepository.shardOfEmail(newEmail))).update(
+                "insert into employee_emails (email, employee_id) values (?, ?)", newEmail, employee.getId());
+
+        //when - action or the behavior we are testing
+        boolean deleted = shardedEmployeeRepository.deleteById(employee.getId());
+
+        //then - verify the output
+        assertThat(deleted).isTrue();
+        assertThat(claimsOnAllShards()).isZero();
+        assertThat(shardedEmployeeRepository.insert(
+                Employee.builder().firstName("Johnny").lastName("Cena").email(newEmail).build())).isNotNull();
+    }
+
+    //JUnit test for insertAll - a claim that fails for another reason than a taken email undoes the earlier claims
+    @DisplayName("JUnit test for insertAll with a failing email shard")
+    @Test
+    public void givenFailingEmailShard_whenInsertAll_thenEarlierClaimsAreReleased() {
+        //given - precondition or setup
+        List<Employee> employees = IntStream.range(0, 20).mapToObj(ShardedEmployeeRepositoryTests::employee).toList();
+        int brokenShard = shardedEmployeeRepository.shardOfEmail(employees.get(employees.size() - 1).getEmail());
+        assertThat(employees.stream().map(employee -> shardedEmployeeRepository.shardOfEmail(employee.getEmail())))
+                .anyMatch(shard -> shard != brokenShard);
+        new JdbcTemplate(dataSources.get(brokenShard)).execute("drop table employee_emails");
+
+        //when - action or the behavior we are testing
+        assertThatThrownBy(() -> shardedEmployeeRepository.insertAll(employees)).isInstanceOf(RuntimeException.class);
+
+        //then - verify the output
+        int claims = 0;
+        for (int shard = 0; shard < 3; shard++) {
+            if (shard != brokenShard) {
+                claims += new JdbcTemplate(dataSources.get(shard))
+                        .queryForObject("select count(*) from employee_emails", Integer.class);
+            }
+        }
+        assertThat(claims).isZero();
+        assertThat(rowsOnShard(0) + rowsOnShard(1) + rowsOnShard(2)).isZero();
+    }
+}
@@ -0,0 +1,93 @@
+package com.practice.springboot.sharding;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SnowflakeIdGeneratorTests {
+
+    //JUnit test for nextId - the timestamp, worker id and sequence are packed into the id
+    @DisplayName("JUnit test for nextId layout")
+    @Test
+    public void givenFixedClock_whenNextId_thenIdHasTimestampWorkerAndSequence() {
+        //given - precondition or setup
+        long now = SnowflakeIdGenerator.EPOCH + 1000;
+        SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(5, () -> now);
+
+        //when - action or the behavior we are testing
+        long first = idGenerator.nextId();
+        long second = idGenerator.nextId();
+
+        //then - verify the output
+        assertThat(first >>> 22).isEqualTo(1000);
+        assertThat((first >>> 12) & SnowflakeIdGenerator.MAX_WORKER_ID).isEqualTo(5);
+        assertThat(second).isEqualTo(first + 1);
+    }
+
+    //JUnit test for nextId - ids keep growing when the clock goes backwards or a millisecond runs out of sequence
+    @DisplayName("JUnit test for nextId with a clock going backwards")
+    @Test
+    public void givenClockGoingBackwards_whenNextId_thenIdsStillIncrease() {
+        //given - precondition or setup
+        AtomicLong now = new AtomicLong(SnowflakeIdGenerator.EPOCH + 5000);
+        SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(0, now::get);
+        long previous = idGenerator.nextId();
+
+        //when - action or the behavior we are testing
+        now.set(SnowflakeIdGenerator.EPOCH + 4000);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            ids.add(idGenerator.nextId());
+        }
+
+        //then - verify the output
+        for (long id : ids) {
+            assertThat(id).isGreaterThan(previous);
+            previous = id;
+        }
+    }
+
+    //JUnit test for nextId - threads sharing one generator never get the same id
+    @DisplayName("JUnit test for nextId from several threads")
+    @Test
+    public void givenSeveralThreads_whenNextId_thenIdsAreUnique() throws InterruptedException {
+        //given - precondition or setup
+        SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(1);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    ids.add(idGenerator.nextId());
+                }
+            }));
+        }
+
+        //when - action or the behavior we are testing
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        //then - verify the output
+        assertThat(ids).hasSize(40_000);
+    }
+
+    //JUnit test for the constructor - the worker id has to fit its 10 bits
+    @DisplayName("JUnit test for an invalid worker id")
+    @Test
+    public void givenWorkerIdOutOfRange_whenCreated_thenThrowsException() {
+        //when - action or the behavior we are testing
+        //then - verify the output
+        assertThatThrownBy(() -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_WORKER_ID + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
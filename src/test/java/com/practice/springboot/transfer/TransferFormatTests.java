@@ -0,0 +1,154 @@
+package com.practice.springboot.transfer;
+
+import com.practice.springboot.exception.MalformedEmployeeDataException;
+import com.practice.springboot.model.Employee;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TransferFormatTests {
+
+    private static byte[] export(TransferFormat format, List<Employee> employees) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        EmployeeWriter writer = format.writer(Channels.newChannel(outputStream));
+        for (Employee employee : employees) {
+            writer.write(employee);
+        }
+        writer.finish();
+        return outputStream.toByteArray();
+    }
+
+    private static List<Employee> read(TransferFormat format, byte[] bytes) throws IOException {
+        EmployeeReader reader = format.reader(Channels.newChannel(new ByteArrayInputStream(bytes)));
+        List<Employee> employees = new ArrayList<>();
+        Employee employee;
+        while ((employee = reader.read()) != null) {
+            employees.add(employee);
+        }
+        return employees;
+    }
+
+    //values that need quoting in CSV, null next to an empty string, and non ASCII text
+    private static List<Employee> awkwardEmployees() {
+        return List.of(
+                Employee.builder().id(1L).firstName("John").lastName("Cena").email("john@gmail.com").build(),
+                Employee.builder().id(7L).firstName("Smith, \"Will\"").lastName("line\nbreak").email("will@gmail.com").build(),
+                Employee.builder().id(3L).firstName("").lastName(null).email("zoë@exämple.com").build());
+    }
+
+    //JUnit test for CSV export and import - values survive the round trip, ids are not read back
+    @DisplayName("JUnit test for CSV export and import")
+    @Test
+    public void givenEmployees_whenCsvRoundTrip_thenReturnSameEmployees() throws IOException {
+        //given - precondition or setup
+        List<Employee> employees = awkwardEmployees();
+
+        //when - action or the behavior we are testing
+        List<Employee> imported = read(TransferFormat.CSV, export(TransferFormat.CSV, employees));
+
+        //then - verify the output
+        assertThat(imported).usingRecursiveFieldByFieldElementComparatorIgnoringFields("id").isEqualTo(employees);
+        assertThat(imported).allSatisfy(employee -> assertThat(employee.getId()).isZero());
+    }
+
+    //JUnit test for CSV import - the id column is not parsed
+    @DisplayName("JUnit test for CSV import with an id that is not a number")
+    @Test
+    public void givenCsvWithBadId_whenImport_thenIdIsIgnored() throws IOException {
+        //given - precondition or setup
+        byte[] csv = "id,firstName,lastName,email\nabc,John,Cena,john@gmail.com\n".getBytes(StandardCharsets.UTF_8);
+
+        //when - action or the behavior we are testing
+        List<Employee> imported = read(TransferFormat.CSV, csv);
+
+        //then - verify the output
+        assertThat(imported).hasSize(1);
+        assertThat(imported.get(0).getId()).isZero();
+        assertThat(imported.get(0).getEmail()).isEqualTo("john@gmail.com");
+    }
+
+    //JUnit test for CSV import - a field longer than any column
+    @DisplayName("JUnit test for CSV import with an oversized field")
+    @Test
+    public void givenCsvWithOversizedField_whenImport_thenThrowsException() {
+        //given - precondition or setup
+        byte[] csv = ("firstName,lastName,email\n" + "J".repeat(EmployeeReader.MAX_FIELD_BYTES + 1) + ",Cena,john@gmail.com\n")
+                .getBytes(StandardCharsets.UTF_8);
+
+        //when - action or the behavior we are testing
+        //then - verify the output
+        Assertions.assertThrows(MalformedEmployeeDataException.class, () -> read(TransferFormat.CSV, csv));
+    }
+
+    //JUnit test for CSV import - CRLF line ends and columns in another order
+    @DisplayName("JUnit test for CSV import with CRLF line ends and reordered columns")
+    @Test
+    public void givenCsvWithReorderedColumns_whenImport_thenColumnsAreMatchedByHeader() throws IOException {
+        //given - precondition or setup
+        byte[] csv = "email,lastName,firstName\r\njohn@gmail.com,Cena,John\r\n".getBytes(StandardCharsets.UTF_8);
+
+        //when - action or the behavior we are testing
+        List<Employee> imported = read(TransferFormat.CSV, csv);
+
+        //then - verify the output
+        assertThat(imported).hasSize(1);
+        assertThat(imported.get(0).getFirstName()).isEqualTo("John");
+        assertThat(imported.get(0).getEmail()).isEqualTo("john@gmail.com");
+        assertThat(imported.get(0).getId()).isZero();
+    }
+
+    //JUnit test for binary export and import - several blocks and unordered ids
+    @DisplayName("JUnit test for binary export and import")
+    @Test
+    public void givenEmployees_whenBinaryRoundTrip_thenReturnSameEmployees() throws IOException {
+        //given - precondition or setup
+        List<Employee> employees = new ArrayList<>(awkwardEmployees());
+        for (long id = 10; id < 10 + 2 * BinaryEmployeeWriter.BLOCK_SIZE; id++) {
+            employees.add(Employee.builder().id(id).firstName("First" + id).lastName("Last" + id).email(id + "@gmail.com").build());
+        }
+
+        //when - action or the behavior we are testing
+        byte[] bytes = export(TransferFormat.BINARY, employees);
+        List<Employee> imported = read(TransferFormat.BINARY, bytes);
+
+        //then - verify the output
+        assertThat(imported).usingRecursiveFieldByFieldElementComparator().isEqualTo(employees);
+        assertThat(bytes.length).isLessThan(export(TransferFormat.CSV, employees).length);
+    }
+
+    //JUnit test for binary import - input that is not a binary export
+    @DisplayName("JUnit test for binary import of another format")
+    @Test
+    public void givenCsv_whenBinaryImport_thenThrowsException() throws IOException {
+        //given - precondition or setup
+        byte[] csv = export(TransferFormat.CSV, awkwardEmployees());
+
+        //when - action or the behavior we are testing
+        //then - verify the output
+        Assertions.assertThrows(MalformedEmployeeDataException.class, () -> read(TransferFormat.BINARY, csv));
+    }
+
+    //JUnit test for binary import - a string length far beyond any column
+    @DisplayName("JUnit test for binary import with an oversized string length")
+    @Test
+    public void givenHugeStringLength_whenBinaryImport_thenThrowsException() {
+        //given - precondition or setup
+        //header, one row with id 0, then a first name length of 2^31
+        byte[] bytes = {'E', 'M', 'P', 'B', BinaryEmployeeWriter.VERSION, 1, 0,
+                (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x08};
+
+        //when - action or the behavior we are testing
+        //then - verify the output
+        Assertions.assertThrows(MalformedEmployeeDataException.class, () -> read(TransferFormat.BINARY, bytes));
+    }
+}
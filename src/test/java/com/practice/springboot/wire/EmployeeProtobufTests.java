@@ -0,0 +1,88 @@
+package com.practice.springboot.wire;
+
+import com.practice.springboot.model.Employee;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class EmployeeProtobufTests {
+
+    private static Employee employee(long id, String firstName) {
+        return Employee.builder().id(id).firstName(firstName).lastName("Cena").email(firstName + "@gmail.com").build();
+    }
+
+    //JUnit test for encode - the bytes are the ones protoc generated code writes for the same message
+    @DisplayName("JUnit test for encode wire bytes")
+    @Test
+    public void givenEmployee_whenEncode_thenWriteProtobufWireFormat() {
+        //given - precondition or setup
+        Employee employee = Employee.builder().id(300L).firstName("Jo").email("").build();
+
+        //when - action or the behavior we are testing
+        byte[] message = EmployeeProtobuf.encode(employee);
+
+        //then - verify the output
+        //field 1 varint 300, field 2 "Jo", null last name and empty email are left out
+        assertThat(message).containsExactly(0x08, 0xAC, 0x02, 0x12, 0x02, 'J', 'o');
+    }
+
+    //JUnit test for decodeList - a list survives the round trip, unknown fields are skipped
+    @DisplayName("JUnit test for list round trip")
+    @Test
+    public void givenEmployeeList_whenEncodedAndDecoded_thenReturnSameEmployees() throws IOException {
+        //given - precondition or setup
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EmployeeProtobuf.writeList(List.of(employee(1L, "John"), employee(Long.MAX_VALUE, "Jürgen")), out);
+        //a field 9 of a newer schema version: varint 5
+        out.write(new byte[]{0x48, 0x05});
+
+        //when - action or the behavior we are testing
+        List<Employee> employees = EmployeeProtobuf.decodeList(out.toByteArray());
+
+        //then - verify the output
+        assertThat(employees).extracting(Employee::getId).containsExactly(1L, Long.MAX_VALUE);
+        assertThat(employees).extracting(Employee::getFirstName).containsExactly("John", "Jürgen");
+        assertThat(employees.get(1).getEmail()).isEqualTo("Jürgen@gmail.com");
+    }
+
+    //JUnit test for readDelimited - messages are read one by one until the end of the stream
+    @DisplayName("JUnit test for delimited stream")
+    @Test
+    public void givenDelimitedMessages_whenReadDelimited_thenReturnEachThenNull() throws IOException {
+        //given - precondition or setup
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EmployeeProtobuf.writeDelimited(employee(1L, "John"), out);
+        EmployeeProtobuf.writeDelimited(employee(2L, "Will"), out);
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+
+        //when - action or the behavior we are testing
+        Employee first = EmployeeProtobuf.readDelimited(in);
+        Employee second = EmployeeProtobuf.readDelimited(in);
+
+        //then - verify the output
+        assertThat(first.getFirstName()).isEqualTo("John");
+        assertThat(second.getId()).isEqualTo(2L);
+        assertThat(EmployeeProtobuf.readDelimited(in)).isNull();
+    }
+
+    //JUnit test for decode - a truncated message is rejected
+    @DisplayName("JUnit test for decode of a truncated message")
+    @Test
+    public void givenTruncatedMessage_whenDecode_thenThrowsException() {
+        //given - precondition or setup
+        byte[] message = EmployeeProtobuf.encode(employee(1L, "John"));
+        byte[] truncated = Arrays.copyOf(message, message.length - 2);
+
+        //when - action or the behavior we are testing
+        //then - verify the output
+        assertThatThrownBy(() -> EmployeeProtobuf.decode(truncated)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,9 @@
+-- the replica has the same schema as the primary, Hibernate only creates it on the primary
+create table if not exists employees (
+    id bigint not null,
+    email varchar(255),
+    first_name varchar(255),
+    last_name varchar(255),
+    version bigint not null,
+    primary key (id)
+);